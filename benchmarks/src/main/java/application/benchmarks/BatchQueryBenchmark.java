@@ -0,0 +1,95 @@
+package application.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.BatchRouter;
+import application.RoutingEngine;
+import application.SolvedNetwork;
+
+/*
+  BatchRouter over random city pairs of one solved network. Scores are per
+  query: a batch of costs, and a batch of costs plus encoded paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-XX:MaxDirectMemorySize=4g" })
+public class BatchQueryBenchmark {
+
+	private static final int QUERIES = 1 << 16;
+
+	@Param({ "GRID", "GEOMETRIC", "GEOMETRIC_DENSE", "SCALE_FREE", "SCALE_FREE_DENSE" })
+	public NetworkShape shape;
+
+	@Param({ "256", "1024" })
+	public int cities;
+
+	private Path inputFile;
+	private SolvedNetwork network;
+	private BatchRouter router;
+	private int[] starts;
+	private int[] ends;
+	private int[] costs;
+	private int[] offsets;
+	private int[] pathCities;
+
+	@Setup
+	public void solve() throws IOException {
+		inputFile = shape.writeInputFile(cities);
+		network = new RoutingEngine().load(inputFile);
+		router = new BatchRouter(network);
+
+		int cityCount = network.getCityCount();
+		Random random = new Random(NetworkShape.SEED);
+		starts = new int[QUERIES];
+		ends = new int[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			starts[q] = random.nextInt(cityCount);
+			ends[q] = random.nextInt(cityCount);
+		}
+		costs = new int[QUERIES];
+		offsets = new int[QUERIES + 1];
+		pathCities = new int[router.pathOffsets(starts, ends, QUERIES, costs, offsets)];
+	}
+
+	@TearDown
+	public void release() throws IOException {
+		network.close();
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int[] costs() {
+		router.costs(starts, ends, QUERIES, costs);
+		return costs;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int[] paths() {
+		router.pathOffsets(starts, ends, QUERIES, costs, offsets);
+		router.paths(starts, ends, QUERIES, offsets, pathCities);
+		return pathCities;
+	}
+}
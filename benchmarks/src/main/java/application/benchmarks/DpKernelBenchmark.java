@@ -0,0 +1,77 @@
+package application.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.BlockedFloydWarshall;
+import application.CityGraph;
+import application.DpKernel;
+import application.DpMode;
+import application.NetworkFile;
+import application.RoutingEngine;
+import application.SolvedNetwork;
+
+/*
+  RoutingEngine.solve() with each relaxation kernel, for the engines that
+  relax tiles through one (BLOCKED and PARALLEL). Each invocation rebuilds
+  the tables from the loaded graph and frees them again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-XX:MaxDirectMemorySize=4g" })
+public class DpKernelBenchmark {
+
+	@Param({ "GRID", "GEOMETRIC", "GEOMETRIC_DENSE", "SCALE_FREE", "SCALE_FREE_DENSE" })
+	public NetworkShape shape;
+
+	@Param({ "256", "1024" })
+	public int cities;
+
+	@Param({ "BLOCKED", "PARALLEL" })
+	public DpMode mode;
+
+	@Param({ "SCALAR", "VECTOR" })
+	public DpKernel kernel;
+
+	private Path inputFile;
+	private CityGraph graph;
+	private RoutingEngine engine;
+
+	@Setup
+	public void load() throws IOException {
+		inputFile = shape.writeInputFile(cities);
+		graph = NetworkFile.load(inputFile).getGraph();
+		engine = new RoutingEngine(mode, Runtime.getRuntime().availableProcessors(), true);
+		BlockedFloydWarshall.setKernel(kernel);
+	}
+
+	@TearDown
+	public void release() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public int solve() {
+		try (SolvedNetwork network = engine.solve(graph, null, null)) {
+			return network.getCityCount();
+		}
+	}
+}
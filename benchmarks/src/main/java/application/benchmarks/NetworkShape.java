@@ -0,0 +1,64 @@
+package application.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import application.City;
+import application.GraphGenerator;
+
+/*
+  Generated network families the benchmarks are parameterized over. The
+  density is part of the shape, so a family without one (GRID cities always
+  have up to 4 neighbours) is not run twice: degree is the average number of
+  connections per city for GEOMETRIC, twice the connections each new city
+  makes for SCALE_FREE.
+ */
+public enum NetworkShape {
+
+	GRID(4), // Square road grid: long routes, many equal-cost alternatives
+	GEOMETRIC(4), // Random geometric graph: regional road network
+	GEOMETRIC_DENSE(12),
+	SCALE_FREE(4), // Preferential attachment: a few hub cities
+	SCALE_FREE_DENSE(12);
+
+	static final int MAX_COST = 100;
+	static final long SEED = 42;
+
+	private final int degree;
+
+	NetworkShape(int degree) {
+		this.degree = degree;
+	}
+
+	// Number of cities generate() produces when asked for cityCount
+	public int actualCityCount(int cityCount) {
+		int side = Math.max(1, (int) Math.sqrt(cityCount));
+		return this == GRID ? side * side : cityCount;
+	}
+
+	// Generates about cityCount cities (GRID rounds down to a square)
+	public City[] generate(int cityCount) {
+		switch (this) {
+		case GRID:
+			int side = Math.max(1, (int) Math.sqrt(cityCount));
+			return GraphGenerator.grid(side, side, MAX_COST, SEED);
+		case GEOMETRIC:
+		case GEOMETRIC_DENSE:
+			return GraphGenerator.geometric(cityCount, degree, MAX_COST, SEED);
+		default:
+			return GraphGenerator.scaleFree(cityCount, Math.max(1, degree / 2), MAX_COST, SEED);
+		}
+	}
+
+	// Writes a generated network to a temporary input file, routing from the
+	// first city to the last one
+	public Path writeInputFile(int cityCount) throws IOException {
+		City[] cities = generate(cityCount);
+		Path file = Files.createTempFile("network-" + name().toLowerCase() + "-" + cityCount + "-", ".txt");
+		file.toFile().deleteOnExit();
+		GraphGenerator.writeNetworkFile(file, cities, cities[0].getCityName(),
+				cities[cities.length - 1].getCityName());
+		return file;
+	}
+}
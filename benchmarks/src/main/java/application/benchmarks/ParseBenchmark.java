@@ -0,0 +1,58 @@
+package application.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.CityGraph;
+import application.NetworkFile;
+
+/*
+  Parsing the input file into the CSR graph (NetworkFile.load), on generated
+  files that stay in the page cache between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "GRID", "GEOMETRIC", "GEOMETRIC_DENSE", "SCALE_FREE", "SCALE_FREE_DENSE" })
+	public NetworkShape shape;
+
+	@Param({ "10000", "100000" })
+	public int cities;
+
+	private Path inputFile;
+
+	@Setup
+	public void write() throws IOException {
+		inputFile = shape.writeInputFile(cities);
+	}
+
+	@TearDown
+	public void delete() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public CityGraph load() throws IOException {
+		return NetworkFile.load(inputFile).getGraph();
+	}
+}
@@ -0,0 +1,122 @@
+package application.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.GraphGenerator;
+import application.KShortestPaths;
+import application.RoutingEngine;
+import application.SolvedNetwork;
+import application.TravelPath;
+
+/*
+  Queries against solved tables: optimal path reconstruction between random
+  city pairs, both into a reused id buffer (SolvedNetwork.getPath) and as a
+  display string (SolvedNetwork.getOptimalPath), and listing
+  the cheapest alternative routes from the start to the end city, which
+  replaced getAllPathsWithCost / calculatePathCost (route costs are now
+  accumulated while the routes are generated).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-XX:MaxDirectMemorySize=4g" })
+public class PathBenchmark {
+
+	private static final int QUERY_PAIRS = 1024;
+
+	@Param({ "GRID", "GEOMETRIC", "GEOMETRIC_DENSE", "SCALE_FREE", "SCALE_FREE_DENSE" })
+	public NetworkShape shape;
+
+	@Param({ "256", "1024" })
+	public int cities;
+
+	private Path inputFile;
+	private SolvedNetwork network;
+	private String[] from;
+	private String[] to;
+	private int[] fromIds;
+	private int[] toIds;
+	private int[] path;
+	private int next;
+
+	@Setup
+	public void solve() throws IOException {
+		inputFile = shape.writeInputFile(cities);
+		network = new RoutingEngine().load(inputFile);
+
+		int cityCount = shape.actualCityCount(cities);
+		Random random = new Random(NetworkShape.SEED);
+		from = new String[QUERY_PAIRS];
+		to = new String[QUERY_PAIRS];
+		for (int q = 0; q < QUERY_PAIRS; q++) {
+			from[q] = GraphGenerator.cityName(random.nextInt(cityCount));
+			to[q] = GraphGenerator.cityName(random.nextInt(cityCount));
+		}
+		fromIds = new int[QUERY_PAIRS];
+		toIds = new int[QUERY_PAIRS];
+		for (int q = 0; q < QUERY_PAIRS; q++) {
+			fromIds[q] = network.indexOf(from[q]);
+			toIds[q] = network.indexOf(to[q]);
+		}
+		path = new int[cityCount];
+	}
+
+	@TearDown
+	public void release() throws IOException {
+		network.close();
+		Files.deleteIfExists(inputFile);
+	}
+
+	@Benchmark
+	public int optimalPathIds() {
+		int q = next++ & (QUERY_PAIRS - 1);
+		return network.getPath(fromIds[q], toIds[q], path);
+	}
+
+	@Benchmark
+	public String optimalPath() {
+		int q = next++ & (QUERY_PAIRS - 1);
+		return network.getOptimalPath(from[q], to[q]);
+	}
+
+	@Benchmark
+	public int alternativeRoutes(RouteCount count) {
+		KShortestPaths generator = network.getAlternativeRoutes();
+		List<TravelPath> found = generator.next(count.routes);
+		int totalCost = 0;
+		for (TravelPath route : found)
+			totalCost += route.getCost();
+		return totalCost;
+	}
+
+	/*
+	 * Number of routes listed by alternativeRoutes, in its own state so it does
+	 * not multiply the runs of the path benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class RouteCount {
+
+		@Param({ "10", "100" })
+		public int routes;
+	}
+}
@@ -0,0 +1,68 @@
+package application;
+
+import java.util.Random;
+
+/*
+  Command-line report comparing plain Dijkstra with ALT (A* with landmarks)
+  on the same random start -> end queries over generated graphs.
+
+  Usage: java application.AltReport [cities] [landmarks] [queries]
+  Defaults to a 100000-city geometric network, 16 landmarks and 1000
+  queries. For each search it prints the average number of settled cities
+  and the average latency; every ALT cost is checked against Dijkstra.
+ */
+public class AltReport {
+
+	private static final int AVG_DEGREE = 6;
+	private static final int MAX_COST = 100;
+
+	public static void main(String[] args) {
+		int cities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int landmarkCount = args.length > 1 ? Integer.parseInt(args[1]) : RoutingEngine.DEFAULT_LANDMARKS;
+		int queries = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+		CityGraph graph = CityGraph.fromCities(GraphGenerator.geometric(cities, AVG_DEGREE, MAX_COST, cities));
+		long start = System.nanoTime();
+		Landmarks landmarks = Landmarks.select(graph, landmarkCount);
+		System.out.printf("%d cities, %d connections, %d landmarks selected in %.1f ms%n", cities,
+				graph.getConnectionCount(), landmarks.getCount(), (System.nanoTime() - start) / 1e6);
+
+		Random random = new Random(cities);
+		int[] from = new int[queries];
+		int[] to = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			from[q] = random.nextInt(cities);
+			to[q] = random.nextInt(cities);
+		}
+
+		SingleSourceDijkstra dijkstra = new SingleSourceDijkstra(graph);
+		SingleSourceDijkstra alt = new SingleSourceDijkstra(graph, landmarks);
+		int[] expected = new int[queries];
+		run(dijkstra, from, to, expected, null); // Warm-up
+		run(alt, from, to, null, expected);
+		System.out.printf("%10s %16s %14s%n", "search", "settled (avg)", "latency (us)");
+		print("dijkstra", run(dijkstra, from, to, expected, null), queries);
+		print("alt", run(alt, from, to, null, expected), queries);
+	}
+
+	// Runs every query; returns { total settled, total nanoseconds }. Records
+	// the costs into record, or checks them against check.
+	private static long[] run(SingleSourceDijkstra search, int[] from, int[] to, int[] record, int[] check) {
+		long settled = 0;
+		long start = System.nanoTime();
+		for (int q = 0; q < from.length; q++) {
+			search.run(from[q], to[q]);
+			settled += search.getSettledCount();
+			int cost = search.getCostTo(to[q]);
+			if (record != null)
+				record[q] = cost;
+			if (check != null && check[q] != cost)
+				throw new IllegalStateException("Query " + q + ": ALT cost " + cost + ", Dijkstra cost " + check[q]);
+		}
+		return new long[] { settled, System.nanoTime() - start };
+	}
+
+	private static void print(String name, long[] totals, int queries) {
+		System.out.printf("%10s %16.0f %14.1f%n", name, (double) totals[0] / queries, totals[1] / 1e3 / queries);
+	}
+}
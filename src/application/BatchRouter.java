@@ -0,0 +1,168 @@
+package application;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+  Answers many origin/destination queries against one SolvedNetwork at once.
+
+  Queries are given as parallel arrays of city ids (starts[q], ends[q]) and
+  answered into arrays the caller allocates and can reuse between batches,
+  so a batch allocates nothing per query. The range of queries is split
+  recursively over a work-stealing ForkJoinPool; all workers only read the
+  network's immutable tables.
+
+  Paths are encoded flat: path q is cities[offsets[q] .. offsets[q + 1]),
+  the city ids from start to end, and is empty if the end is unreachable.
+  pathOffsets() fills the costs and offsets (so the caller can size the
+  cities array), then paths() fills the cities.
+
+  In DpMode.DIJKSTRA, DpMode.ALT and DpMode.CH there are no tables and each
+  query runs a search on its worker; sorting a batch by start city lets
+  consecutive queries share one (in DpMode.CH, only along the same path).
+ */
+public final class BatchRouter {
+
+	public static final int DEFAULT_GRAIN = 2048; // Queries per leaf task
+
+	private static final int COSTS = 0;
+	private static final int PATH_LENGTHS = 1;
+	private static final int PATHS = 2;
+
+	private final SolvedNetwork network;
+	private final ForkJoinPool pool;
+	private final int grain;
+
+	// Runs batches on the common ForkJoinPool
+	public BatchRouter(SolvedNetwork network) {
+		this(network, ForkJoinPool.commonPool(), DEFAULT_GRAIN);
+	}
+
+	public BatchRouter(SolvedNetwork network, ForkJoinPool pool, int grain) {
+		if (grain <= 0)
+			throw new IllegalArgumentException("Grain must be positive: " + grain);
+		this.network = network;
+		this.pool = pool;
+		this.grain = grain;
+	}
+
+	public SolvedNetwork getNetwork() {
+		return network;
+	}
+
+	// Sets costs[q] to the minimum cost from starts[q] to ends[q] (INF if
+	// unreachable) for q in 0 .. count - 1
+	public void costs(int[] starts, int[] ends, int count, int[] costs) {
+		checkQueries(starts, ends, count);
+		checkLength("costs", costs, count);
+		run(COSTS, starts, ends, count, costs, null, null);
+	}
+
+	// Fills costs as costs() does, and offsets[0 .. count] with the start of
+	// each path in the cities array of paths(). Returns the total number of
+	// path cities, offsets[count].
+	public int pathOffsets(int[] starts, int[] ends, int count, int[] costs, int[] offsets) {
+		checkQueries(starts, ends, count);
+		checkLength("costs", costs, count);
+		checkLength("offsets", offsets, count + 1);
+		// Workers store each path's length at offsets[q + 1]; the prefix sum
+		// then turns lengths into start positions
+		run(PATH_LENGTHS, starts, ends, count, costs, offsets, null);
+		long total = 0;
+		offsets[0] = 0;
+		for (int q = 1; q <= count; q++) {
+			total += offsets[q];
+			if (total > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Paths of this batch exceed 2^31 cities");
+			offsets[q] = (int) total;
+		}
+		return (int) total;
+	}
+
+	// Writes the cities of every path into cities, at the offsets returned by
+	// pathOffsets() for the same queries
+	public void paths(int[] starts, int[] ends, int count, int[] offsets, int[] cities) {
+		checkQueries(starts, ends, count);
+		checkLength("offsets", offsets, count + 1);
+		checkLength("cities", cities, offsets[count]);
+		run(PATHS, starts, ends, count, null, offsets, cities);
+	}
+
+	private void run(int operation, int[] starts, int[] ends, int count, int[] costs, int[] offsets, int[] cities) {
+		QueryTask task = new QueryTask(operation, starts, ends, costs, offsets, cities, 0, count);
+		if (count <= grain)
+			task.compute(); // Not worth a hand-off to the pool
+		else
+			pool.invoke(task);
+	}
+
+	private void checkQueries(int[] starts, int[] ends, int count) {
+		checkLength("starts", starts, count);
+		checkLength("ends", ends, count);
+	}
+
+	private static void checkLength(String name, int[] array, int length) {
+		if (length < 0 || array.length < length)
+			throw new IllegalArgumentException(name + " holds " + array.length + " values, " + length + " needed");
+	}
+
+	/*
+	 * Answers queries [from, to), splitting the range in halves down to the
+	 * grain. Tables are read directly when the network has them.
+	 */
+	private class QueryTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int operation;
+		private final int[] starts;
+		private final int[] ends;
+		private final int[] costs;
+		private final int[] offsets;
+		private final int[] cities;
+		private final int from;
+		private final int to;
+
+		QueryTask(int operation, int[] starts, int[] ends, int[] costs, int[] offsets, int[] cities, int from,
+				int to) {
+			this.operation = operation;
+			this.starts = starts;
+			this.ends = ends;
+			this.costs = costs;
+			this.offsets = offsets;
+			this.cities = cities;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > grain) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new QueryTask(operation, starts, ends, costs, offsets, cities, from, mid),
+						new QueryTask(operation, starts, ends, costs, offsets, cities, mid, to));
+				return;
+			}
+
+			IntMatrix costTable = network.costTable();
+			int n = network.getCityCount();
+			for (int q = from; q < to; q++) {
+				int start = starts[q];
+				int end = ends[q];
+				if (start < 0 || start >= n || end < 0 || end >= n)
+					throw new IllegalArgumentException("Query " + q + " names an unknown city id");
+
+				if (operation == PATHS) {
+					if (offsets[q + 1] > offsets[q])
+						network.getPath(start, end, cities, offsets[q]);
+					continue;
+				}
+
+				int cost = costTable != null ? costTable.get(start, end) : network.getCost(start, end);
+				costs[q] = cost;
+				if (operation == PATH_LENGTHS)
+					offsets[q + 1] = cost == SolvedNetwork.INF ? 0 : network.getHopCount(start, end) + 1;
+			}
+		}
+	}
+}
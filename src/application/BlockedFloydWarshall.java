@@ -0,0 +1,207 @@
+package application;
+
+/*
+  All-pairs minimum cost engine using the cache-blocked Floyd-Warshall scheme.
+
+  The cost and previous-city tables are off-heap IntMatrix instances with the
+  cell for (i, j) at flat index i * n + j. The matrix is split into square
+  tiles and each block of intermediate cities k is processed in three phases:
+    1. the diagonal tile (kb, kb)
+    2. the tiles in row kb and column kb
+    3. all remaining tiles
+  Every tile keeps k as its outermost loop, so a tile only touches three
+  tile-sized regions of memory and the result no longer depends on the order
+  in which (i, j) pairs are visited. Costs equal those of the textbook order
+  (solveReference), but where two routes cost the same the previous-city
+  table may keep the other one.
+ */
+public class BlockedFloydWarshall {
+
+	public static final int INF = Integer.MAX_VALUE; // Unreachable marker
+	public static final int DEFAULT_BLOCK_SIZE = 64; // 64 x 64 ints = 16 KB per tile
+
+	// Inner loop used by relax(); the vector kernel when the JVM provides it
+	private static volatile DpKernel kernel = DpKernel.VECTOR.isAvailable() ? DpKernel.VECTOR : DpKernel.SCALAR;
+
+	private BlockedFloydWarshall() {
+	}
+
+	// Selects the relaxation kernel for both blocked engines. Falls back to the
+	// scalar kernel if the requested one is not available in this JVM.
+	public static void setKernel(DpKernel requested) {
+		kernel = requested.isAvailable() ? requested : DpKernel.SCALAR;
+	}
+
+	// Kernel currently in use
+	public static DpKernel getKernel() {
+		return kernel;
+	}
+
+	// Runs the blocked algorithm with the default tile size
+	public static void solve(IntMatrix cost, IntMatrix prev) {
+		solve(cost, prev, DEFAULT_BLOCK_SIZE);
+	}
+
+	// Runs the blocked algorithm in place over cost and prev
+	public static void solve(IntMatrix cost, IntMatrix prev, int blockSize) {
+		if (blockSize <= 0)
+			throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+
+		int n = cost.size();
+		int blocks = (n + blockSize - 1) / blockSize;
+		Tile diagonal = new Tile(blockSize);
+		Tile row = new Tile(blockSize);
+		Tile column = new Tile(blockSize);
+		Tile cell = new Tile(blockSize);
+		for (int kb = 0; kb < blocks; kb++) {
+			// Phase 1: the diagonal tile depends only on itself
+			diagonal.load(cost, prev, kb, kb);
+			relax(diagonal, diagonal, diagonal);
+			diagonal.store(cost, prev);
+
+			// Phase 2: tiles sharing a row or a column with the diagonal tile
+			for (int b = 0; b < blocks; b++) {
+				if (b == kb)
+					continue;
+				row.load(cost, prev, kb, b);
+				relax(diagonal, row, row);
+				row.store(cost, prev);
+				column.load(cost, prev, b, kb);
+				relax(column, diagonal, column);
+				column.store(cost, prev);
+			}
+
+			// Phase 3: every other tile, using the finished row and column tiles
+			for (int ib = 0; ib < blocks; ib++) {
+				if (ib == kb)
+					continue;
+				column.load(cost, prev, ib, kb);
+				for (int jb = 0; jb < blocks; jb++) {
+					if (jb == kb)
+						continue;
+					row.load(cost, prev, kb, jb);
+					cell.load(cost, prev, ib, jb);
+					relax(column, row, cell);
+					cell.store(cost, prev);
+				}
+			}
+		}
+	}
+
+	// Textbook Floyd-Warshall with k outermost, used to check the blocked engine
+	public static void solveReference(IntMatrix cost, IntMatrix prev) {
+		int n = cost.size();
+		for (int k = 0; k < n; k++) {
+			for (int i = 0; i < n; i++) {
+				int costIK = cost.get(i, k);
+				if (costIK == INF)
+					continue;
+				for (int j = 0; j < n; j++) {
+					int costKJ = cost.get(k, j);
+					if (costKJ == INF)
+						continue;
+					int newCost = addSaturated(costIK, costKJ);
+					if (newCost < cost.get(i, j)) {
+						cost.set(i, j, newCost);
+						prev.set(i, j, prev.get(k, j)); // Last hop now comes from the k -> j path
+					}
+				}
+			}
+		}
+	}
+
+	// Relaxes every cell of tile ij through the intermediate cities of the k
+	// block. ik holds the costs from ij's rows to the k block and kj the costs
+	// and previous cities from the k block to ij's columns. Tiles may be the
+	// same object (phases 1 and 2); the k loop then sees its own updates, just
+	// as it does on the full matrix.
+	static void relax(Tile ik, Tile kj, Tile ij) {
+		if (kernel == DpKernel.VECTOR)
+			VectorRelaxKernel.relax(ik, kj, ij);
+		else
+			relaxScalar(ik, kj, ij);
+	}
+
+	// One cell per iteration; the reference for VectorRelaxKernel
+	static void relaxScalar(Tile ik, Tile kj, Tile ij) {
+		int stride = ij.stride;
+		int kCount = kj.rows;
+		int rows = ij.rows;
+		int columns = ij.columns;
+		int[] ikCost = ik.cost;
+		int[] kjCost = kj.cost;
+		int[] kjPrev = kj.prev;
+		int[] ijCost = ij.cost;
+		int[] ijPrev = ij.prev;
+		for (int k = 0; k < kCount; k++) {
+			int kRow = k * stride;
+			for (int i = 0; i < rows; i++) {
+				int iRow = i * stride;
+				int costIK = ikCost[iRow + k];
+				if (costIK == INF)
+					continue;
+				for (int j = 0; j < columns; j++) {
+					int costKJ = kjCost[kRow + j];
+					if (costKJ == INF)
+						continue;
+					int newCost = addSaturated(costIK, costKJ);
+					if (newCost < ijCost[iRow + j]) {
+						ijCost[iRow + j] = newCost;
+						ijPrev[iRow + j] = kjPrev[kRow + j]; // Last hop now comes from the k -> j path
+					}
+				}
+			}
+		}
+	}
+
+	// Adds two non-negative costs, returning INF instead of wrapping around
+	// when the sum does not fit an int
+	static int addSaturated(int a, int b) {
+		int sum = a + b;
+		return sum < 0 ? INF : sum;
+	}
+
+	/*
+	 * Heap copy of one tile of the cost and previous-city matrices. The solvers
+	 * copy the few tiles a step needs out of the off-heap matrices, relax them as
+	 * plain int[]s (which the JIT unrolls and keeps in L1) and copy the changed
+	 * tile back. Copying is O(B^2) per tile against O(B^3) relaxation work.
+	 */
+	static final class Tile {
+
+		final int stride; // Block size; row r of the tile starts at r * stride
+		final int[] cost;
+		final int[] prev;
+		int row0; // First matrix row / column of the loaded tile
+		int column0;
+		int rows; // Loaded size, smaller than stride for the last block
+		int columns;
+
+		Tile(int blockSize) {
+			stride = blockSize;
+			cost = new int[blockSize * blockSize];
+			prev = new int[blockSize * blockSize];
+		}
+
+		// Copies tile (ib, jb) in from the matrices
+		void load(IntMatrix costMatrix, IntMatrix prevMatrix, int ib, int jb) {
+			int n = costMatrix.size();
+			row0 = ib * stride;
+			column0 = jb * stride;
+			rows = Math.min(stride, n - row0);
+			columns = Math.min(stride, n - column0);
+			for (int r = 0; r < rows; r++) {
+				costMatrix.getRow(row0 + r, column0, cost, r * stride, columns);
+				prevMatrix.getRow(row0 + r, column0, prev, r * stride, columns);
+			}
+		}
+
+		// Copies the tile back to where it was loaded from
+		void store(IntMatrix costMatrix, IntMatrix prevMatrix) {
+			for (int r = 0; r < rows; r++) {
+				costMatrix.setRow(row0 + r, column0, cost, r * stride, columns);
+				prevMatrix.setRow(row0 + r, column0, prev, r * stride, columns);
+			}
+		}
+	}
+}
@@ -0,0 +1,280 @@
+package application;
+
+import java.util.Arrays;
+
+/*
+  Immutable compressed sparse row (CSR) view of the city network.
+
+  Cities are numbered 0 .. N-1 in file order. The connections leaving city u
+  are the edge indices offsets[u] .. offsets[u + 1] - 1; for each edge e,
+  targets[e] is the destination id and petrolCosts[e] / hotelCosts[e] are its
+  costs. Destination names are resolved to ids once, when the graph is built,
+  so algorithms running on it never compare strings. Connections to cities
+  that are not declared in the file are dropped, as fillDpTable() always did.
+ */
+public final class CityGraph {
+
+	private final String[] names;
+	private final CityNameIndex nameIndex;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] petrolCosts;
+	private final int[] hotelCosts;
+	private final int[] totalCosts; // petrol + hotel, precomputed for the solvers
+	private volatile Reverse reverse; // Incoming connections, built on first use
+
+	CityGraph(String[] names, int[] offsets, int[] targets, int[] petrolCosts, int[] hotelCosts) {
+		this(names, new CityNameIndex(names), offsets, targets, petrolCosts, hotelCosts);
+	}
+
+	CityGraph(String[] names, CityNameIndex nameIndex, int[] offsets, int[] targets, int[] petrolCosts,
+			int[] hotelCosts) {
+		this.names = names;
+		this.nameIndex = nameIndex;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.petrolCosts = petrolCosts;
+		this.hotelCosts = hotelCosts;
+		this.totalCosts = new int[targets.length];
+		for (int e = 0; e < targets.length; e++)
+			totalCosts[e] = petrolCosts[e] + hotelCosts[e];
+	}
+
+	// Builds the graph from parsed cities; city i gets id i
+	public static CityGraph fromCities(City[] cities) {
+		int cityCount = cities.length;
+		String[] names = new String[cityCount];
+		int connectionCount = 0;
+		for (int i = 0; i < cityCount; i++) {
+			names[i] = cities[i].getCityName();
+			connectionCount += cities[i].getNumberOfConnections();
+		}
+
+		// Destinations are resolved once every city's name is known
+		CityNameIndex nameIndex = new CityNameIndex(names);
+		int[] offsets = new int[cityCount + 1];
+		int[] targets = new int[connectionCount];
+		int[] petrol = new int[connectionCount];
+		int[] hotel = new int[connectionCount];
+		int edgeCount = 0;
+		for (int i = 0; i < cityCount; i++) {
+			for (Connection conn : cities[i].getConnections()) {
+				int target = nameIndex.indexOf(conn.getDestination());
+				if (target != -1) {
+					targets[edgeCount] = target;
+					petrol[edgeCount] = conn.getPetrolCost();
+					hotel[edgeCount] = conn.getHotelCost();
+					edgeCount++;
+				}
+			}
+			offsets[i + 1] = edgeCount;
+		}
+
+		if (edgeCount < connectionCount) {
+			targets = Arrays.copyOf(targets, edgeCount);
+			petrol = Arrays.copyOf(petrol, edgeCount);
+			hotel = Arrays.copyOf(hotel, edgeCount);
+		}
+		return new CityGraph(names, nameIndex, offsets, targets, petrol, hotel);
+	}
+
+	// Returns the id of the first city with the given name (case-insensitive),
+	// or -1 if there is none
+	public int indexOf(String cityName) {
+		return nameIndex.indexOf(cityName);
+	}
+
+	public int getCityCount() {
+		return names.length;
+	}
+
+	public int getConnectionCount() {
+		return targets.length;
+	}
+
+	public String getCityName(int city) {
+		return names[city];
+	}
+
+	// First edge index of the city's connections
+	public int firstEdge(int city) {
+		return offsets[city];
+	}
+
+	// One past the last edge index of the city's connections
+	public int endEdge(int city) {
+		return offsets[city + 1];
+	}
+
+	public int getTarget(int edge) {
+		return targets[edge];
+	}
+
+	public int getPetrolCost(int edge) {
+		return petrolCosts[edge];
+	}
+
+	public int getHotelCost(int edge) {
+		return hotelCosts[edge];
+	}
+
+	public int getTotalCost(int edge) {
+		return totalCosts[edge];
+	}
+
+	// Returns the first edge from one city to another, or -1 if not connected
+	public int findEdge(int from, int to) {
+		for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+			if (targets[e] == to)
+				return e;
+		}
+		return -1;
+	}
+
+	// Returns the total cost of the direct connection, or -1 if not connected
+	public int getCostTo(int from, int to) {
+		int edge = findEdge(from, to);
+		return edge == -1 ? -1 : totalCosts[edge];
+	}
+
+	// Returns the cost of the cheapest direct connection between two cities,
+	// or Integer.MAX_VALUE if there is none
+	public int getCheapestCost(int from, int to) {
+		int best = Integer.MAX_VALUE;
+		for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+			if (targets[e] == to && totalCosts[e] < best)
+				best = totalCosts[e];
+		}
+		return best;
+	}
+
+	// True if both graphs have the same cities and connections (costs may
+	// differ), as for copies made by withConnectionCost
+	boolean sharesConnections(CityGraph other) {
+		return names == other.names && offsets == other.offsets && targets == other.targets;
+	}
+
+	// Upper bound on the cost of any loopless route: a route leaves each city
+	// at most once, so it costs no more than the sum over cities of their most
+	// expensive outgoing connection. Used to pick the DP table cell width.
+	public long getMaxPathCost() {
+		long bound = 0;
+		for (int i = 0; i < names.length; i++) {
+			int max = 0;
+			for (int e = offsets[i]; e < offsets[i + 1]; e++)
+				max = Math.max(max, totalCosts[e]);
+			bound += max;
+		}
+		return bound;
+	}
+
+	// Returns a copy of this graph where the first connection from one city to
+	// another has new costs. The name index, offsets and targets are shared.
+	public CityGraph withConnectionCost(int from, int to, int petrolCost, int hotelCost) {
+		int edge = findEdge(from, to);
+		if (edge == -1)
+			throw new IllegalArgumentException("No connection from " + names[from] + " to " + names[to]);
+		int[] petrol = petrolCosts.clone();
+		int[] hotel = hotelCosts.clone();
+		petrol[edge] = petrolCost;
+		hotel[edge] = hotelCost;
+		return new CityGraph(names, nameIndex, offsets, targets, petrol, hotel);
+	}
+
+	// Fills N x N tables with the starting values for Floyd-Warshall: 0 on the
+	// diagonal, the cheapest direct connection cost where one exists, INF
+	// elsewhere. previous(i, j) is set to i for every direct connection.
+	public void fillDirectCostTable(IntMatrix cost, IntMatrix previous) {
+		int n = names.length;
+		int[] costRow = new int[n];
+		int[] previousRow = new int[n];
+		for (int i = 0; i < n; i++) {
+			Arrays.fill(costRow, Integer.MAX_VALUE);
+			Arrays.fill(previousRow, 0);
+			costRow[i] = 0;
+			for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+				int j = targets[e];
+				if (j != i && totalCosts[e] < costRow[j]) {
+					costRow[j] = totalCosts[e];
+					previousRow[j] = i;
+				}
+			}
+			cost.setRow(i, 0, costRow, 0, n);
+			previous.setRow(i, 0, previousRow, 0, n);
+		}
+	}
+
+	// Raw arrays for the solvers in this package; callers must not modify them
+	int[] offsets() {
+		return offsets;
+	}
+
+	int[] targets() {
+		return targets;
+	}
+
+	int[] totalCosts() {
+		return totalCosts;
+	}
+
+	int[] petrolCosts() {
+		return petrolCosts;
+	}
+
+	int[] hotelCosts() {
+		return hotelCosts;
+	}
+
+	// Reverse CSR: the connections arriving at city v are reverse edges
+	// reverseOffsets()[v] .. reverseOffsets()[v + 1] - 1; reverse edge r comes
+	// from city reverseSources()[r] and is forward edge reverseEdges()[r]
+	int[] reverseOffsets() {
+		return reverse().offsets;
+	}
+
+	int[] reverseSources() {
+		return reverse().sources;
+	}
+
+	int[] reverseEdges() {
+		return reverse().edges;
+	}
+
+	private Reverse reverse() {
+		Reverse built = reverse;
+		if (built == null) {
+			built = new Reverse(offsets, targets);
+			reverse = built; // Racing threads at worst build identical copies
+		}
+		return built;
+	}
+
+	/*
+	 * Incoming connections of every city, grouped by destination.
+	 */
+	private static final class Reverse {
+
+		final int[] offsets;
+		final int[] sources;
+		final int[] edges;
+
+		Reverse(int[] forwardOffsets, int[] targets) {
+			int cityCount = forwardOffsets.length - 1;
+			offsets = new int[cityCount + 1];
+			sources = new int[targets.length];
+			edges = new int[targets.length];
+			for (int target : targets)
+				offsets[target + 1]++;
+			for (int c = 0; c < cityCount; c++)
+				offsets[c + 1] += offsets[c];
+			int[] fill = Arrays.copyOf(offsets, cityCount);
+			for (int c = 0; c < cityCount; c++) {
+				for (int e = forwardOffsets[c]; e < forwardOffsets[c + 1]; e++) {
+					int r = fill[targets[e]]++;
+					sources[r] = c;
+					edges[r] = e;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package application;
+
+/*
+  Case-insensitive city name -> id lookup table.
+
+  Open addressing with linear probing over two int arrays: the id stored in a
+  slot (plus one, so 0 means empty) and the folded hash of its name. Hashing
+  folds every character the same way String.equalsIgnoreCase compares them,
+  so lookups work on the caller's string as-is: no lower-case copy, no boxing,
+  no allocation. When a name appears more than once the first id is kept,
+  matching the old linear scan.
+ */
+public final class CityNameIndex {
+
+	private final String[] names; // names[id]
+	private final int[] slotIds; // id + 1 per slot, 0 = empty
+	private final int[] slotHashes; // folded hash of the name in each slot
+	private final int mask;
+
+	// Indexes names[0 .. names.length); the array is not copied
+	public CityNameIndex(String[] names) {
+		this.names = names;
+		int capacity = Integer.highestOneBit(Math.max(2, names.length * 2 - 1)) << 1; // Load factor <= 0.5
+		this.slotIds = new int[capacity];
+		this.slotHashes = new int[capacity];
+		this.mask = capacity - 1;
+
+		for (int id = 0; id < names.length; id++) {
+			int hash = foldedHash(names[id]);
+			int slot = find(names[id], hash);
+			if (slotIds[slot] == 0) {
+				slotIds[slot] = id + 1;
+				slotHashes[slot] = hash;
+			}
+		}
+	}
+
+	// Returns the id of the name (case-insensitive), or -1 if it is unknown
+	public int indexOf(String name) {
+		if (name == null)
+			return -1;
+		return slotIds[find(name, foldedHash(name))] - 1;
+	}
+
+	// Number of names indexed, duplicates included
+	public int size() {
+		return names.length;
+	}
+
+	// Returns the slot holding the name, or the empty slot where it would go
+	private int find(String name, int hash) {
+		int slot = mix(hash) & mask;
+		while (true) {
+			int id = slotIds[slot] - 1;
+			if (id == -1 || (slotHashes[slot] == hash && names[id].equalsIgnoreCase(name)))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	// String.hashCode() over characters folded like equalsIgnoreCase
+	static int foldedHash(String name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++) {
+			hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		}
+		return hash;
+	}
+
+	// Spreads the bits so that similar names do not cluster in the table
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,575 @@
+package application;
+
+import java.util.Arrays;
+
+/*
+  Contraction hierarchy over the total (petrol + hotel) costs of a CityGraph,
+  for point-to-point queries that settle a few hundred cities at most.
+
+  Preprocessing contracts the cities one at a time, least important first.
+  Contracting v removes it from the remaining graph; for every pair of
+  remaining neighbours u -> v -> w whose cheapest connection runs through v,
+  a shortcut u -> w is added, unless a local witness search finds a path
+  just as cheap that avoids v. Importance is the edge difference (shortcuts
+  needed minus connections removed) plus the number of neighbours already
+  contracted, updated lazily whenever a city reaches the front of the queue.
+
+  Every connection and shortcut ends up as an edge from a lower-ranked to a
+  higher-ranked city (upward) or the reverse (downward). A query runs
+  Dijkstra upward from the start and, over reversed downward edges, upward
+  from the end, alternating between the two, and stops once neither side can
+  improve the best meeting city. Shortcuts remember the two edges they
+  replace, and are unpacked iteratively into the original connections.
+
+  The hierarchy is immutable and can be shared between threads; each thread
+  runs its own Query. It is saved in the graph snapshot (see GraphSnapshot).
+ */
+public final class ContractionHierarchy {
+
+	public static final int INF = Integer.MAX_VALUE;
+
+	private static final int WITNESS_SETTLE_LIMIT = 100; // Cities a witness search may settle
+
+	private final int cityCount;
+	private final int[] rank; // Contraction order of each city
+
+	// Edges: originals have first == -1, shortcuts replace edges first, second
+	private final int[] edgeFrom;
+	private final int[] edgeTo;
+	private final int[] edgeWeight;
+	private final int[] edgeFirst;
+	private final int[] edgeSecond;
+
+	// Upward edges leaving each city and downward edges arriving at each city
+	private final int[] upOffsets;
+	private final int[] upEdges;
+	private final int[] downOffsets;
+	private final int[] downEdges;
+
+	ContractionHierarchy(int[] rank, int[] edgeFrom, int[] edgeTo, int[] edgeWeight, int[] edgeFirst,
+			int[] edgeSecond) {
+		this.cityCount = rank.length;
+		this.rank = rank;
+		this.edgeFrom = edgeFrom;
+		this.edgeTo = edgeTo;
+		this.edgeWeight = edgeWeight;
+		this.edgeFirst = edgeFirst;
+		this.edgeSecond = edgeSecond;
+
+		// Group the edges by the lower-ranked end: leaving it upward, or
+		// arriving at it downward
+		upOffsets = new int[cityCount + 1];
+		downOffsets = new int[cityCount + 1];
+		int edgeCount = edgeFrom.length;
+		for (int e = 0; e < edgeCount; e++) {
+			if (rank[edgeTo[e]] > rank[edgeFrom[e]])
+				upOffsets[edgeFrom[e] + 1]++;
+			else
+				downOffsets[edgeTo[e] + 1]++;
+		}
+		for (int c = 0; c < cityCount; c++) {
+			upOffsets[c + 1] += upOffsets[c];
+			downOffsets[c + 1] += downOffsets[c];
+		}
+		upEdges = new int[upOffsets[cityCount]];
+		downEdges = new int[downOffsets[cityCount]];
+		int[] upFill = Arrays.copyOf(upOffsets, cityCount);
+		int[] downFill = Arrays.copyOf(downOffsets, cityCount);
+		for (int e = 0; e < edgeCount; e++) {
+			if (rank[edgeTo[e]] > rank[edgeFrom[e]])
+				upEdges[upFill[edgeFrom[e]]++] = e;
+			else
+				downEdges[downFill[edgeTo[e]]++] = e;
+		}
+	}
+
+	// Contracts every city of the graph
+	public static ContractionHierarchy build(CityGraph graph) {
+		return new Builder(graph).build();
+	}
+
+	public int getCityCount() {
+		return cityCount;
+	}
+
+	// Number of edges: original connections (parallel ones merged) plus
+	// shortcuts
+	public int getEdgeCount() {
+		return edgeFrom.length;
+	}
+
+	// Number of shortcuts added by the contraction
+	public int getShortcutCount() {
+		int shortcuts = 0;
+		for (int first : edgeFirst) {
+			if (first != -1)
+				shortcuts++;
+		}
+		return shortcuts;
+	}
+
+	// Contraction order of a city (0 was contracted first)
+	public int getRank(int city) {
+		return rank[city];
+	}
+
+	// A query buffer for one thread
+	public Query newQuery() {
+		return new Query();
+	}
+
+	// Raw arrays for snapshots; callers must not modify them
+	int[] rank() {
+		return rank;
+	}
+
+	int[] edgeFrom() {
+		return edgeFrom;
+	}
+
+	int[] edgeTo() {
+		return edgeTo;
+	}
+
+	int[] edgeWeight() {
+		return edgeWeight;
+	}
+
+	int[] edgeFirst() {
+		return edgeFirst;
+	}
+
+	int[] edgeSecond() {
+		return edgeSecond;
+	}
+
+	/*
+	 * Bidirectional upward search with reusable buffers. After run(source,
+	 * target) the best path is available as city ids, together with the cost
+	 * of reaching each of its cities, so any prefix of the path is answered
+	 * without searching again. Not thread-safe.
+	 */
+	public final class Query {
+
+		private final int[] forwardCost = new int[cityCount];
+		private final int[] backwardCost = new int[cityCount];
+		private final int[] forwardEdge = new int[cityCount]; // Edge used to reach each city
+		private final int[] backwardEdge = new int[cityCount];
+		private final int[] forwardRun = new int[cityCount]; // Run in which the city was reached
+		private final int[] backwardRun = new int[cityCount];
+		private final int[] pathRun = new int[cityCount]; // Run in which the city was put on the path
+		private final int[] pathIndex = new int[cityCount];
+		private final IntBinaryHeap forwardQueue = new IntBinaryHeap(cityCount);
+		private final IntBinaryHeap backwardQueue = new IntBinaryHeap(cityCount);
+
+		private int[] path = new int[64];
+		private int[] pathCost = new int[64];
+		private int pathLength;
+		private int[] stack = new int[64];
+
+		private int run;
+		private int source = -1;
+		private int target = -1;
+		private int settledCount;
+
+		private Query() {
+		}
+
+		// Finds the cheapest path from source to target
+		public void run(int source, int target) {
+			run++;
+			this.source = source;
+			this.target = target;
+			settledCount = 0;
+			pathLength = 0;
+			forwardQueue.clear();
+			backwardQueue.clear();
+
+			reach(forwardCost, forwardEdge, forwardRun, source, 0, -1);
+			forwardQueue.insertOrDecrease(source, 0);
+			reach(backwardCost, backwardEdge, backwardRun, target, 0, -1);
+			backwardQueue.insertOrDecrease(target, 0);
+
+			long best = INF;
+			int meet = -1;
+			while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+				long forwardMin = forwardQueue.isEmpty() ? INF : forwardQueue.keyOf(forwardQueue.peek());
+				long backwardMin = backwardQueue.isEmpty() ? INF : backwardQueue.keyOf(backwardQueue.peek());
+				if (Math.min(forwardMin, backwardMin) >= best)
+					break;
+				boolean forward = forwardMin <= backwardMin;
+				int city = forward ? forwardQueue.poll() : backwardQueue.poll();
+				settledCount++;
+
+				// Best meeting point so far
+				if (forwardRun[city] == run && backwardRun[city] == run) {
+					long total = (long) forwardCost[city] + backwardCost[city];
+					if (total < best) {
+						best = total;
+						meet = city;
+					}
+				}
+
+				if (forward) {
+					int cost = forwardCost[city];
+					for (int i = upOffsets[city]; i < upOffsets[city + 1]; i++) {
+						int e = upEdges[i];
+						relax(forwardQueue, forwardCost, forwardEdge, forwardRun, edgeTo[e], cost + edgeWeight[e], e);
+					}
+				} else {
+					int cost = backwardCost[city];
+					for (int i = downOffsets[city]; i < downOffsets[city + 1]; i++) {
+						int e = downEdges[i];
+						relax(backwardQueue, backwardCost, backwardEdge, backwardRun, edgeFrom[e],
+								cost + edgeWeight[e], e);
+					}
+				}
+			}
+			if (meet != -1)
+				unpack(meet);
+		}
+
+		private void reach(int[] cost, int[] edge, int[] reachedRun, int city, int newCost, int via) {
+			cost[city] = newCost;
+			edge[city] = via;
+			reachedRun[city] = run;
+		}
+
+		private void relax(IntBinaryHeap queue, int[] cost, int[] edge, int[] reachedRun, int city, int newCost,
+				int via) {
+			if (reachedRun[city] != run || newCost < cost[city]) {
+				reach(cost, edge, reachedRun, city, newCost, via);
+				queue.insertOrDecrease(city, newCost);
+			}
+		}
+
+		// Rebuilds the path source -> meet -> target from the two search trees,
+		// expanding every shortcut into original connections
+		private void unpack(int meet) {
+			append(source, 0);
+			// Forward half: walking back from meet pushes the edges so that the
+			// first one ends on top
+			int top = 0;
+			for (int city = meet; city != source; city = edgeFrom[forwardEdge[city]])
+				top = push(top, forwardEdge[city]);
+			expand(top);
+
+			// Backward half: walking on from meet meets the edges in path order,
+			// so expand them one at a time
+			for (int city = meet; city != target; city = edgeTo[backwardEdge[city]])
+				expand(push(0, backwardEdge[city]));
+
+			for (int i = 0; i < pathLength; i++) {
+				pathRun[path[i]] = run;
+				pathIndex[path[i]] = i;
+			}
+		}
+
+		// Pops edges off the stack, splitting shortcuts, and appends the target
+		// of every original connection to the path
+		private void expand(int top) {
+			while (top > 0) {
+				int e = stack[--top];
+				if (edgeFirst[e] == -1) {
+					append(edgeTo[e], pathCost[pathLength - 1] + edgeWeight[e]);
+				} else {
+					top = push(top, edgeSecond[e]);
+					top = push(top, edgeFirst[e]);
+				}
+			}
+		}
+
+		private int push(int top, int edge) {
+			if (top == stack.length)
+				stack = Arrays.copyOf(stack, top * 2);
+			stack[top] = edge;
+			return top + 1;
+		}
+
+		private void append(int city, int cost) {
+			if (pathLength == path.length) {
+				path = Arrays.copyOf(path, pathLength * 2);
+				pathCost = Arrays.copyOf(pathCost, pathLength * 2);
+			}
+			path[pathLength] = city;
+			pathCost[pathLength] = cost;
+			pathLength++;
+		}
+
+		// Source of the last run, or -1 before the first run
+		public int getSource() {
+			return source;
+		}
+
+		// True if the last run answers the query from its source to city: city
+		// is the target or lies on the path found
+		public boolean answers(int from, int city) {
+			return from == source && (city == target || pathRun[city] == run);
+		}
+
+		// Minimum cost from the source to a city answered by the last run, or
+		// INF if the target is unreachable
+		public int getCostTo(int city) {
+			return pathRun[city] == run ? pathCost[pathIndex[city]] : INF;
+		}
+
+		// City before the given city on the path found, or -1 for the source
+		public int getPreviousCity(int city) {
+			int index = pathIndex[city];
+			return index == 0 ? -1 : path[index - 1];
+		}
+
+		// Number of cities on the path found (0 if the target is unreachable)
+		public int getPathLength() {
+			return pathLength;
+		}
+
+		// City at position i of the path found
+		public int getPathCity(int i) {
+			return path[i];
+		}
+
+		// Number of cities settled by the last run, both directions together
+		public int getSettledCount() {
+			return settledCount;
+		}
+	}
+
+	/*
+	 * Contraction state: a shrinking graph of the cities not contracted yet,
+	 * with per-city lists of edge ids in and out, and a bounded Dijkstra for
+	 * witness searches.
+	 */
+	private static final class Builder {
+
+		private final int n;
+		private int[] from;
+		private int[] to;
+		private int[] weight;
+		private int[] first;
+		private int[] second;
+		private int edgeCount;
+
+		private final int[][] out;
+		private final int[] outSize;
+		private final int[][] in;
+		private final int[] inSize;
+
+		private final boolean[] contracted;
+		private final int[] rank;
+		private final int[] contractedNeighbours;
+
+		// Witness search
+		private final int[] witnessCost;
+		private final int[] witnessRun;
+		private final int[] targetRun; // Run in which the city was one to settle
+		private final IntBinaryHeap witnessQueue;
+		private int run;
+
+		// Shortcuts found by the last call to findShortcuts()
+		private int[] shortcutFirst = new int[16];
+		private int[] shortcutSecond = new int[16];
+		private int shortcutCount;
+
+		Builder(CityGraph graph) {
+			n = graph.getCityCount();
+			int e = graph.getConnectionCount();
+			from = new int[Math.max(16, e)];
+			to = new int[from.length];
+			weight = new int[from.length];
+			first = new int[from.length];
+			second = new int[from.length];
+			out = new int[n][];
+			outSize = new int[n];
+			in = new int[n][];
+			inSize = new int[n];
+			for (int c = 0; c < n; c++) {
+				out[c] = new int[4];
+				in[c] = new int[4];
+			}
+			contracted = new boolean[n];
+			rank = new int[n];
+			contractedNeighbours = new int[n];
+			witnessCost = new int[n];
+			witnessRun = new int[n];
+			targetRun = new int[n];
+			witnessQueue = new IntBinaryHeap(n);
+
+			// Original connections; parallel ones keep the cheapest
+			for (int u = 0; u < n; u++) {
+				for (int edge = graph.firstEdge(u); edge < graph.endEdge(u); edge++) {
+					int v = graph.getTarget(edge);
+					if (v != u)
+						addEdge(u, v, graph.getTotalCost(edge), -1, -1);
+				}
+			}
+		}
+
+		ContractionHierarchy build() {
+			IntBinaryHeap order = new IntBinaryHeap(n);
+			for (int v = 0; v < n; v++)
+				order.insertOrDecrease(v, priority(v));
+
+			int next = 0;
+			while (!order.isEmpty()) {
+				int v = order.poll();
+				// Lazy update: contract v only if it is still the least important;
+				// its shortcuts are then the ones priority() just found
+				int current = priority(v);
+				if (!order.isEmpty() && current > order.keyOf(order.peek())) {
+					order.insertOrDecrease(v, current);
+					continue;
+				}
+				contract(v);
+				rank[v] = next++;
+			}
+			return new ContractionHierarchy(rank, Arrays.copyOf(from, edgeCount), Arrays.copyOf(to, edgeCount),
+					Arrays.copyOf(weight, edgeCount), Arrays.copyOf(first, edgeCount), Arrays.copyOf(second, edgeCount));
+		}
+
+		// Edge difference plus contracted neighbours
+		private int priority(int v) {
+			findShortcuts(v);
+			return shortcutCount - inSize[v] - outSize[v] + contractedNeighbours[v];
+		}
+
+		// Contracts v with the shortcuts found by the priority(v) call just before
+		private void contract(int v) {
+			for (int s = 0; s < shortcutCount; s++) {
+				int a = shortcutFirst[s];
+				int b = shortcutSecond[s];
+				addEdge(from[a], to[b], weight[a] + weight[b], a, b);
+			}
+
+			// Take v out of the remaining graph
+			contracted[v] = true;
+			for (int i = 0; i < inSize[v]; i++) {
+				int u = from[in[v][i]];
+				remove(out, outSize, u, in[v][i]);
+				contractedNeighbours[u]++;
+			}
+			for (int i = 0; i < outSize[v]; i++) {
+				int w = to[out[v][i]];
+				remove(in, inSize, w, out[v][i]);
+				contractedNeighbours[w]++;
+			}
+		}
+
+		// Lists the pairs of edges u -> v -> w that need a shortcut if v is
+		// contracted now
+		private void findShortcuts(int v) {
+			shortcutCount = 0;
+			int maxOut = 0;
+			for (int j = 0; j < outSize[v]; j++)
+				maxOut = Math.max(maxOut, weight[out[v][j]]);
+
+			for (int i = 0; i < inSize[v]; i++) {
+				int a = in[v][i];
+				int u = from[a];
+				witnessSearch(u, v, weight[a] + maxOut);
+				for (int j = 0; j < outSize[v]; j++) {
+					int b = out[v][j];
+					int w = to[b];
+					if (w == u)
+						continue;
+					int via = weight[a] + weight[b];
+					if (witnessRun[w] == run && witnessCost[w] <= via)
+						continue; // A path as cheap avoids v
+					if (shortcutCount == shortcutFirst.length) {
+						shortcutFirst = Arrays.copyOf(shortcutFirst, shortcutCount * 2);
+						shortcutSecond = Arrays.copyOf(shortcutSecond, shortcutCount * 2);
+					}
+					shortcutFirst[shortcutCount] = a;
+					shortcutSecond[shortcutCount] = b;
+					shortcutCount++;
+				}
+			}
+		}
+
+		// Dijkstra from u over the remaining graph without v, until every
+		// neighbour v leads to is settled, or up to a cost limit and a settle
+		// limit
+		private void witnessSearch(int u, int v, int limit) {
+			run++;
+			int pending = 0;
+			for (int j = 0; j < outSize[v]; j++) {
+				int w = to[out[v][j]];
+				if (w != u && targetRun[w] != run) {
+					targetRun[w] = run;
+					pending++;
+				}
+			}
+			witnessQueue.clear();
+			witnessCost[u] = 0;
+			witnessRun[u] = run;
+			witnessQueue.insertOrDecrease(u, 0);
+			int settled = 0;
+			while (pending > 0 && !witnessQueue.isEmpty() && settled++ < WITNESS_SETTLE_LIMIT) {
+				int city = witnessQueue.poll();
+				if (targetRun[city] == run)
+					pending--;
+				int cost = witnessCost[city];
+				for (int i = 0; i < outSize[city]; i++) {
+					int e = out[city][i];
+					int next = to[e];
+					int newCost = cost + weight[e];
+					if (next == v || newCost > limit)
+						continue;
+					if (witnessRun[next] != run || newCost < witnessCost[next]) {
+						witnessCost[next] = newCost;
+						witnessRun[next] = run;
+						witnessQueue.insertOrDecrease(next, newCost);
+					}
+				}
+			}
+		}
+
+		// Adds an edge, or lowers the weight of an existing edge between the same
+		// cities if the new one is cheaper
+		private void addEdge(int u, int w, int edgeWeight, int edgeFirst, int edgeSecond) {
+			for (int i = 0; i < outSize[u]; i++) {
+				int e = out[u][i];
+				if (to[e] == w) {
+					if (edgeWeight < weight[e]) {
+						weight[e] = edgeWeight;
+						first[e] = edgeFirst;
+						second[e] = edgeSecond;
+					}
+					return;
+				}
+			}
+			if (edgeCount == from.length) {
+				int capacity = edgeCount * 2;
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+				first = Arrays.copyOf(first, capacity);
+				second = Arrays.copyOf(second, capacity);
+			}
+			int e = edgeCount++;
+			from[e] = u;
+			to[e] = w;
+			weight[e] = edgeWeight;
+			first[e] = edgeFirst;
+			second[e] = edgeSecond;
+			add(out, outSize, u, e);
+			add(in, inSize, w, e);
+		}
+
+		private static void add(int[][] lists, int[] sizes, int city, int edge) {
+			if (sizes[city] == lists[city].length)
+				lists[city] = Arrays.copyOf(lists[city], sizes[city] * 2);
+			lists[city][sizes[city]++] = edge;
+		}
+
+		private static void remove(int[][] lists, int[] sizes, int city, int edge) {
+			int[] list = lists[city];
+			for (int i = 0; i < sizes[city]; i++) {
+				if (list[i] == edge) {
+					list[i] = list[--sizes[city]];
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package application;
+
+/*
+  Selects the inner loop the blocked Floyd-Warshall engines use to relax a tile.
+ */
+public enum DpKernel {
+
+	SCALAR, // One cell per iteration, plain Java
+	VECTOR; // Whole row segments per instruction through jdk.incubator.vector
+
+	// Parses a kernel name such as "scalar" or "vector" (case-insensitive)
+	public static DpKernel fromName(String name) {
+		for (DpKernel kernel : values()) {
+			if (kernel.name().equalsIgnoreCase(name.trim()))
+				return kernel;
+		}
+		throw new IllegalArgumentException("Unknown DP kernel: " + name);
+	}
+
+	// Returns true if this kernel can run in the current JVM. The vector kernel
+	// needs the incubator module: java --add-modules jdk.incubator.vector
+	public boolean isAvailable() {
+		return this == SCALAR || ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+}
@@ -0,0 +1,23 @@
+package application;
+
+/*
+  Selects which engine RoutingEngine uses to answer route queries.
+ */
+public enum DpMode {
+
+	LEGACY, // Original loop order with the intermediate city k innermost
+	BLOCKED, // Cache-blocked Floyd-Warshall with k outermost
+	PARALLEL, // Blocked Floyd-Warshall with tiles spread over a ForkJoinPool
+	DIJKSTRA, // Single-source search for the start -> end query only, no N x N tables
+	ALT, // Single-source A* search guided by landmark lower bounds, no N x N tables
+	CH; // Bidirectional upward search over a contraction hierarchy, no N x N tables
+
+	// Parses a mode name such as "legacy" or "dijkstra" (case-insensitive)
+	public static DpMode fromName(String name) {
+		for (DpMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(name.trim()))
+				return mode;
+		}
+		throw new IllegalArgumentException("Unknown DP mode: " + name);
+	}
+}
@@ -0,0 +1,262 @@
+package application;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/*
+  Scrollable view of a network's DP cost table, drawn on one Canvas.
+
+  Only the cells inside the viewport are drawn, each read from the cost
+  table when it is painted, so opening the view takes the same time for 10
+  cities as for 10000 and no node exists per cell. City names stay pinned
+  above and to the left of the cells while scrolling. Hovering over a cell
+  highlights its row and column, marks the cell of the previous city on
+  that route, and shows the cost and previous city below the table.
+ */
+public class DpTableView extends Region {
+
+	private static final double CELL_WIDTH = 78;
+	private static final double CELL_HEIGHT = 34;
+	private static final double ROW_HEADER_WIDTH = 110;
+	private static final double COLUMN_HEADER_HEIGHT = 38;
+	private static final double TEXT_PADDING = 6;
+
+	private static final Color BACKGROUND = Color.web("#fff9f0");
+	private static final Color HEADER_FILL = Color.web("#fce8c3");
+	private static final Color HEADER_BORDER = Color.web("#d9ad7c");
+	private static final Color HEADER_TEXT = Color.web("#4b2e1e");
+	private static final Color CELL_FILL = Color.WHITE;
+	private static final Color CELL_BORDER = Color.web("#d9d9d9");
+	private static final Color CELL_TEXT = Color.web("#2c2c2c");
+	private static final Color CROSS_FILL = Color.web("#fff3df"); // Row and column of the hovered cell
+	private static final Color HOVER_FILL = Color.web("#f6d39b");
+	private static final Color PREVIOUS_FILL = Color.web("#dcebd5"); // Cell of the previous city on the route
+
+	private static final Font HEADER_FONT = Font.font("Georgia", FontWeight.BOLD, 14);
+	private static final Font CELL_FONT = Font.font("monospace", 14);
+
+	private final SolvedNetwork network;
+	private final CityGraph graph;
+	private final int cityCount;
+	private final String[] headerNames; // Upper-case names, made on first display
+
+	private final Canvas canvas = new Canvas();
+	private final ScrollBar horizontal = new ScrollBar();
+	private final ScrollBar vertical = new ScrollBar();
+	private final Label readout = new Label();
+
+	private int hoverRow = -1;
+	private int hoverColumn = -1;
+
+	// Shows the cost table of a network that has one (network.hasTables())
+	public DpTableView(SolvedNetwork network) {
+		if (!network.hasTables())
+			throw new IllegalArgumentException("No cost table in " + network.getMode() + " mode");
+		this.network = network;
+		this.graph = network.getGraph();
+		this.cityCount = network.getCityCount();
+		this.headerNames = new String[cityCount];
+
+		setPrefSize(1000, 600);
+		vertical.setOrientation(Orientation.VERTICAL);
+		horizontal.setUnitIncrement(CELL_WIDTH);
+		vertical.setUnitIncrement(CELL_HEIGHT);
+		horizontal.valueProperty().addListener((observable, before, after) -> draw());
+		vertical.valueProperty().addListener((observable, before, after) -> draw());
+
+		readout.setPadding(new Insets(8, 4, 0, 4));
+		readout.setTextFill(HEADER_TEXT);
+		readout.setFont(Font.font("Segoe UI", FontWeight.BOLD, 14));
+		readout.setText("Hover over a cell to see its route's previous city.");
+
+		canvas.setOnMouseMoved(this::hover);
+		canvas.setOnMouseExited(event -> setHover(-1, -1));
+		canvas.setOnScroll(this::scroll);
+		getChildren().addAll(canvas, horizontal, vertical, readout);
+	}
+
+	@Override
+	protected void layoutChildren() {
+		double x = snappedLeftInset();
+		double y = snappedTopInset();
+		double width = Math.max(0, getWidth() - x - snappedRightInset());
+		double height = Math.max(0, getHeight() - y - snappedBottomInset());
+		double barWidth = vertical.prefWidth(-1);
+		double barHeight = horizontal.prefHeight(-1);
+		double readoutHeight = readout.prefHeight(width);
+
+		double canvasWidth = Math.max(0, width - barWidth);
+		double canvasHeight = Math.max(0, height - barHeight - readoutHeight);
+		canvas.relocate(x, y);
+		canvas.setWidth(canvasWidth);
+		canvas.setHeight(canvasHeight);
+		vertical.resizeRelocate(x + canvasWidth, y, barWidth, canvasHeight);
+		horizontal.resizeRelocate(x, y + canvasHeight, canvasWidth, barHeight);
+		readout.resizeRelocate(x, y + canvasHeight + barHeight, width, readoutHeight);
+
+		// Scroll ranges: how far the cells extend beyond the viewport
+		updateRange(horizontal, cityCount * CELL_WIDTH, canvasWidth - ROW_HEADER_WIDTH);
+		updateRange(vertical, cityCount * CELL_HEIGHT, canvasHeight - COLUMN_HEADER_HEIGHT);
+		draw();
+	}
+
+	private static void updateRange(ScrollBar bar, double content, double viewport) {
+		double max = Math.max(0, content - Math.max(0, viewport));
+		bar.setMax(max);
+		bar.setVisibleAmount(Math.max(1, viewport));
+		bar.setBlockIncrement(Math.max(1, viewport * 0.9));
+		if (bar.getValue() > max)
+			bar.setValue(max);
+	}
+
+	// Paints the visible cells, then the pinned headers over them
+	private void draw() {
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		double width = canvas.getWidth();
+		double height = canvas.getHeight();
+		gc.setFill(BACKGROUND);
+		gc.fillRect(0, 0, width, height);
+		if (cityCount == 0)
+			return;
+
+		double scrollX = horizontal.getValue();
+		double scrollY = vertical.getValue();
+		int firstColumn = (int) (scrollX / CELL_WIDTH);
+		int lastColumn = Math.min(cityCount - 1, (int) ((scrollX + width - ROW_HEADER_WIDTH) / CELL_WIDTH));
+		int firstRow = (int) (scrollY / CELL_HEIGHT);
+		int lastRow = Math.min(cityCount - 1, (int) ((scrollY + height - COLUMN_HEADER_HEIGHT) / CELL_HEIGHT));
+		int previousColumn = hoverRow != -1 ? previousCity(hoverRow, hoverColumn) : -1;
+
+		gc.setLineWidth(1);
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.setTextBaseline(VPos.CENTER);
+
+		// Cells
+		gc.setFont(CELL_FONT);
+		for (int row = firstRow; row <= lastRow; row++) {
+			double y = COLUMN_HEADER_HEIGHT + row * CELL_HEIGHT - scrollY;
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				double x = ROW_HEADER_WIDTH + column * CELL_WIDTH - scrollX;
+				Color fill = CELL_FILL;
+				if (row == hoverRow && column == hoverColumn)
+					fill = HOVER_FILL;
+				else if (row == hoverRow && column == previousColumn)
+					fill = PREVIOUS_FILL;
+				else if (row == hoverRow || column == hoverColumn)
+					fill = CROSS_FILL;
+				int cost = network.getCost(row, column);
+				drawCell(gc, x, y, CELL_WIDTH, CELL_HEIGHT, fill, CELL_BORDER, CELL_TEXT,
+						cost == SolvedNetwork.INF ? "INF" : Integer.toString(cost));
+			}
+		}
+
+		// Pinned headers: column names on top, row names on the left, and the
+		// corner over both
+		gc.setFont(HEADER_FONT);
+		for (int column = firstColumn; column <= lastColumn; column++) {
+			double x = ROW_HEADER_WIDTH + column * CELL_WIDTH - scrollX;
+			drawCell(gc, x, 0, CELL_WIDTH, COLUMN_HEADER_HEIGHT, column == hoverColumn ? HOVER_FILL : HEADER_FILL,
+					HEADER_BORDER, HEADER_TEXT, headerName(column));
+		}
+		for (int row = firstRow; row <= lastRow; row++) {
+			double y = COLUMN_HEADER_HEIGHT + row * CELL_HEIGHT - scrollY;
+			drawCell(gc, 0, y, ROW_HEADER_WIDTH, CELL_HEIGHT, row == hoverRow ? HOVER_FILL : HEADER_FILL,
+					HEADER_BORDER, HEADER_TEXT, headerName(row));
+		}
+		drawCell(gc, 0, 0, ROW_HEADER_WIDTH, COLUMN_HEADER_HEIGHT, HEADER_FILL, HEADER_BORDER, HEADER_TEXT,
+				"FROM \\ TO");
+	}
+
+	private static void drawCell(GraphicsContext gc, double x, double y, double width, double height, Color fill,
+			Color border, Color textColor, String text) {
+		gc.setFill(fill);
+		gc.fillRect(x, y, width, height);
+		gc.setStroke(border);
+		gc.strokeRect(x + 0.5, y + 0.5, width - 1, height - 1);
+		gc.setFill(textColor);
+		gc.fillText(text, x + width / 2, y + height / 2, width - 2 * TEXT_PADDING);
+	}
+
+	private String headerName(int city) {
+		String name = headerNames[city];
+		if (name == null) {
+			name = graph.getCityName(city).toUpperCase();
+			headerNames[city] = name;
+		}
+		return name;
+	}
+
+	// Previous city on the best route, or -1 if there is none
+	private int previousCity(int from, int to) {
+		if (from == to || network.getCost(from, to) == SolvedNetwork.INF)
+			return -1;
+		return network.getPreviousCity(from, to);
+	}
+
+	// Tracks the cell under the mouse (headers select nothing)
+	private void hover(MouseEvent event) {
+		double x = event.getX() - ROW_HEADER_WIDTH;
+		double y = event.getY() - COLUMN_HEADER_HEIGHT;
+		if (x < 0 || y < 0) {
+			setHover(-1, -1);
+			return;
+		}
+		int column = (int) ((x + horizontal.getValue()) / CELL_WIDTH);
+		int row = (int) ((y + vertical.getValue()) / CELL_HEIGHT);
+		if (column >= cityCount || row >= cityCount)
+			setHover(-1, -1);
+		else
+			setHover(row, column);
+	}
+
+	private void setHover(int row, int column) {
+		if (row == hoverRow && column == hoverColumn)
+			return;
+		hoverRow = row;
+		hoverColumn = column;
+		if (row != -1) {
+			String from = graph.getCityName(row);
+			String to = graph.getCityName(column);
+			int cost = network.getCost(row, column);
+			int previous = previousCity(row, column);
+			if (cost == SolvedNetwork.INF)
+				readout.setText("From " + from + " to " + to + ": no path");
+			else if (previous == -1)
+				readout.setText("From " + from + " to " + to + ": cost " + cost);
+			else
+				readout.setText("From " + from + " to " + to + ": cost " + cost + ", previous city "
+						+ graph.getCityName(previous));
+		}
+		draw();
+	}
+
+	// Mouse wheel and trackpad scrolling; with Shift held the wheel scrolls
+	// sideways
+	private void scroll(ScrollEvent event) {
+		double dx = event.getDeltaX();
+		double dy = event.getDeltaY();
+		if (event.isShiftDown() && dx == 0) {
+			dx = dy;
+			dy = 0;
+		}
+		scrollBy(horizontal, -dx);
+		scrollBy(vertical, -dy);
+		event.consume();
+	}
+
+	private static void scrollBy(ScrollBar bar, double delta) {
+		bar.setValue(Math.max(bar.getMin(), Math.min(bar.getMax(), bar.getValue() + delta)));
+	}
+}
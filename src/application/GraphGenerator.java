@@ -0,0 +1,181 @@
+package application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+  Generates synthetic city networks for scaling and benchmark runs.
+  City names are "C0", "C1", ... so generated networks can be written in the
+  same text format as the input file.
+ */
+public class GraphGenerator {
+
+	private GraphGenerator() {
+	}
+
+	// Random directed graph: every city gets avgDegree connections to random
+	// other cities, with petrol and hotel costs in [1, maxCost]
+	public static City[] random(int cityCount, int avgDegree, int maxCost, long seed) {
+		Random random = new Random(seed);
+		City[] cities = new City[cityCount];
+		for (int i = 0; i < cityCount; i++) {
+			int degree = Math.min(avgDegree, cityCount - 1);
+			Connection[] connections = new Connection[degree];
+			for (int c = 0; c < degree; c++) {
+				int target = random.nextInt(cityCount - 1);
+				if (target >= i)
+					target++; // Skip self loops
+				connections[c] = new Connection(cityName(target), 1 + random.nextInt(maxCost),
+						1 + random.nextInt(maxCost));
+			}
+			cities[i] = new City(cityName(i), connections);
+		}
+		return cities;
+	}
+
+	// Grid of rows x columns cities; each city connects both ways to its
+	// right and lower neighbours (so up to 4 connections per city)
+	public static City[] grid(int rows, int columns, int maxCost, long seed) {
+		Random random = new Random(seed);
+		List<List<Connection>> adjacency = emptyAdjacency(rows * columns);
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				int city = r * columns + c;
+				if (c + 1 < columns)
+					connectBothWays(adjacency, city, city + 1, maxCost, random);
+				if (r + 1 < rows)
+					connectBothWays(adjacency, city, city + columns, maxCost, random);
+			}
+		}
+		return toCities(adjacency);
+	}
+
+	// Random geometric graph: cities are random points in the unit square and
+	// every pair closer than the radius giving avgDegree neighbours on average
+	// is connected both ways. Cities are bucketed in a grid of radius-sized
+	// cells so only neighbouring cells are compared.
+	public static City[] geometric(int cityCount, int avgDegree, int maxCost, long seed) {
+		Random random = new Random(seed);
+		double[] x = new double[cityCount];
+		double[] y = new double[cityCount];
+		for (int i = 0; i < cityCount; i++) {
+			x[i] = random.nextDouble();
+			y[i] = random.nextDouble();
+		}
+
+		double radius = Math.sqrt(avgDegree / (Math.PI * Math.max(1, cityCount)));
+		int cells = Math.max(1, (int) (1 / radius));
+		List<List<Integer>> buckets = new ArrayList<>(cells * cells);
+		for (int b = 0; b < cells * cells; b++)
+			buckets.add(new ArrayList<>());
+		for (int i = 0; i < cityCount; i++)
+			buckets.get(cell(y[i], cells) * cells + cell(x[i], cells)).add(i);
+
+		List<List<Connection>> adjacency = emptyAdjacency(cityCount);
+		for (int i = 0; i < cityCount; i++) {
+			int cx = cell(x[i], cells);
+			int cy = cell(y[i], cells);
+			for (int ny = Math.max(0, cy - 1); ny <= Math.min(cells - 1, cy + 1); ny++) {
+				for (int nx = Math.max(0, cx - 1); nx <= Math.min(cells - 1, cx + 1); nx++) {
+					for (int j : buckets.get(ny * cells + nx)) {
+						double dx = x[i] - x[j];
+						double dy = y[i] - y[j];
+						if (j > i && dx * dx + dy * dy < radius * radius)
+							connectBothWays(adjacency, i, j, maxCost, random);
+					}
+				}
+			}
+		}
+		return toCities(adjacency);
+	}
+
+	// Scale-free graph by preferential attachment (Barabasi-Albert): each new
+	// city connects both ways to edgesPerCity distinct earlier cities chosen
+	// with probability proportional to their degree plus one
+	public static City[] scaleFree(int cityCount, int edgesPerCity, int maxCost, long seed) {
+		Random random = new Random(seed);
+		List<List<Connection>> adjacency = emptyAdjacency(cityCount);
+		int[] endpoints = new int[2 * cityCount * edgesPerCity + 2]; // One entry per connection end
+		int endpointCount = 0;
+		int[] chosen = new int[edgesPerCity];
+		for (int city = 1; city < cityCount; city++) {
+			int count = Math.min(edgesPerCity, city);
+			for (int c = 0; c < count; c++) {
+				int target;
+				do {
+					// A random connection end favours cities by degree; the first 'city'
+					// picks add one to every degree so unconnected cities can be chosen
+					int pick = random.nextInt(city + endpointCount);
+					target = pick < city ? pick : endpoints[pick - city];
+				} while (contains(chosen, c, target));
+				chosen[c] = target;
+				connectBothWays(adjacency, city, target, maxCost, random);
+				endpoints[endpointCount++] = city;
+				endpoints[endpointCount++] = target;
+			}
+		}
+		return toCities(adjacency);
+	}
+
+	// Writes cities in the input file format, with the given start and end
+	public static void writeNetworkFile(Path path, City[] cities, String startCity, String endCity)
+			throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			writer.write(Integer.toString(cities.length));
+			writer.newLine();
+			writer.write(startCity + ", " + endCity);
+			writer.newLine();
+			for (City city : cities) {
+				writer.write(city.getCityName());
+				for (Connection conn : city.getConnections()) {
+					writer.write(", [" + conn.getDestination() + "," + conn.getPetrolCost() + ","
+							+ conn.getHotelCost() + "]");
+				}
+				writer.newLine();
+			}
+		}
+	}
+
+	private static int cell(double coordinate, int cells) {
+		return Math.min(cells - 1, (int) (coordinate * cells));
+	}
+
+	private static boolean contains(int[] values, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value)
+				return true;
+		}
+		return false;
+	}
+
+	private static List<List<Connection>> emptyAdjacency(int cityCount) {
+		List<List<Connection>> adjacency = new ArrayList<>(cityCount);
+		for (int i = 0; i < cityCount; i++)
+			adjacency.add(new ArrayList<>());
+		return adjacency;
+	}
+
+	private static void connectBothWays(List<List<Connection>> adjacency, int a, int b, int maxCost,
+			Random random) {
+		adjacency.get(a).add(new Connection(cityName(b), 1 + random.nextInt(maxCost), 1 + random.nextInt(maxCost)));
+		adjacency.get(b).add(new Connection(cityName(a), 1 + random.nextInt(maxCost), 1 + random.nextInt(maxCost)));
+	}
+
+	private static City[] toCities(List<List<Connection>> adjacency) {
+		City[] cities = new City[adjacency.size()];
+		for (int i = 0; i < cities.length; i++)
+			cities[i] = new City(cityName(i), adjacency.get(i).toArray(new Connection[0]));
+		return cities;
+	}
+
+	// Name given to the city with the given index
+	public static String cityName(int index) {
+		return "C" + index;
+	}
+}
@@ -0,0 +1,524 @@
+package application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+  Force-directed positions for the cities of a graph, drawn by
+  GraphVisualizer.
+
+  After Fruchterman and Reingold, every connection pulls its two cities
+  together with force d^2 / k and every pair of cities pushes apart with
+  force k^2 / d, where k is the ideal connection length; a weak pull towards
+  the centre keeps separate parts of the network in view. The all-pairs push
+  is approximated with a Barnes-Hut quadtree: a group of cities whose cell is
+  small compared to its distance (cell width < THETA * distance) acts as one
+  body at its centre of mass, so an iteration costs O(N log N) instead of
+  O(N^2).
+
+  Started from random positions, large networks end up folded over
+  themselves, so the layout is multilevel: the graph is coarsened by merging
+  neighbouring cities until about COARSEST are left, that graph is laid out,
+  and each finer level starts from the positions of the cities it was merged
+  into and only needs a few iterations to settle. A 10000-city network takes
+  one to two seconds.
+
+  A layout depends only on the cities and their connections, so of()
+  computes one per graph on a background thread and hands the same result to
+  every later network that shares them (cost updates do). It is turned so
+  the start city lies left of the end city. Positions are in units of k.
+ */
+public final class GraphLayout {
+
+	private static final double THETA = 1.0;
+	private static final double GRAVITY = 0.2;
+	private static final double MIN_CELL = 1e-6; // Cities closer than this share a quadtree leaf
+	private static final double MIN_DISTANCE2 = 1e-4; // Caps the push between cities almost on top of each other
+	private static final int COARSEST = 50; // Cities in the coarsest level
+	private static final double MAX_SHRINK = 0.8; // A level must have at most this share of the finer one's cities
+	private static final int COARSEST_ITERATIONS = 300;
+	private static final int REFINE_ITERATIONS = 30;
+	private static final double REFINE_STEP = 1;
+	private static final double COOLING = 0.9;
+	private static final int CACHE_SIZE = 4;
+
+	private static final ExecutorService LAYOUT_THREAD = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "graph-layout");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final ArrayDeque<Entry> CACHE = new ArrayDeque<>(); // Most recently used first
+
+	private final double[] x;
+	private final double[] y;
+	private final int[] segmentFrom; // Connected pairs, each once whatever the direction
+	private final int[] segmentTo;
+	private final double minX, minY, maxX, maxY;
+
+	private GraphLayout(double[] x, double[] y, int[] segmentFrom, int[] segmentTo) {
+		this.x = x;
+		this.y = y;
+		this.segmentFrom = segmentFrom;
+		this.segmentTo = segmentTo;
+		double lowX = 0, lowY = 0, highX = 0, highY = 0;
+		for (int i = 0; i < x.length; i++) {
+			if (i == 0 || x[i] < lowX)
+				lowX = x[i];
+			if (i == 0 || x[i] > highX)
+				highX = x[i];
+			if (i == 0 || y[i] < lowY)
+				lowY = y[i];
+			if (i == 0 || y[i] > highY)
+				highY = y[i];
+		}
+		this.minX = lowX;
+		this.minY = lowY;
+		this.maxX = highX;
+		this.maxY = highY;
+	}
+
+	// Layout of the network's graph, computed on the layout thread unless a
+	// recent network with the same connections already has one
+	public static CompletableFuture<GraphLayout> of(SolvedNetwork network) {
+		CityGraph graph = network.getGraph();
+		int start = network.indexOf(network.getStartCity());
+		int end = network.indexOf(network.getEndCity());
+		synchronized (CACHE) {
+			for (Iterator<Entry> it = CACHE.iterator(); it.hasNext();) {
+				Entry entry = it.next();
+				if (entry.graph.sharesConnections(graph) && entry.start == start && entry.end == end) {
+					it.remove();
+					CACHE.addFirst(entry);
+					return entry.layout;
+				}
+			}
+			CompletableFuture<GraphLayout> layout = CompletableFuture.supplyAsync(() -> compute(graph, start, end),
+					LAYOUT_THREAD);
+			CACHE.addFirst(new Entry(graph, start, end, layout));
+			if (CACHE.size() > CACHE_SIZE)
+				CACHE.removeLast();
+			return layout;
+		}
+	}
+
+	// Computes a layout on the calling thread; start and end may be -1
+	public static GraphLayout compute(CityGraph graph, int start, int end) {
+		int n = graph.getCityCount();
+		long[] pairs = new long[graph.getConnectionCount()];
+		int count = 0;
+		for (int u = 0; u < n; u++) {
+			for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++)
+				pairs[count++] = pair(u, graph.getTarget(e));
+		}
+		Level finest = new Level(n, pairs, count, null);
+
+		// Coarser and coarser copies of the graph, each merging matched
+		// neighbours into one city, down to COARSEST cities or until merging
+		// stops shrinking the graph
+		List<Level> levels = new ArrayList<>();
+		levels.add(finest);
+		Random random = new Random(n);
+		while (true) {
+			Level fine = levels.get(levels.size() - 1);
+			if (fine.cityCount <= COARSEST)
+				break;
+			Level coarse = fine.coarsen(random);
+			if (coarse.cityCount > MAX_SHRINK * fine.cityCount)
+				break;
+			levels.add(coarse);
+		}
+
+		// Lay out the coarsest graph from a random start, then each finer one
+		// from the positions of the cities it was merged into
+		Level coarsest = levels.get(levels.size() - 1);
+		double[] x = new double[coarsest.cityCount];
+		double[] y = new double[coarsest.cityCount];
+		double side = Math.sqrt(coarsest.cityCount);
+		for (int i = 0; i < x.length; i++) {
+			x[i] = (random.nextDouble() - 0.5) * side;
+			y[i] = (random.nextDouble() - 0.5) * side;
+		}
+		QuadTree tree = new QuadTree(n);
+		relax(coarsest, x, y, tree, COARSEST_ITERATIONS, side / 2 + 1);
+		for (int l = levels.size() - 2; l >= 0; l--) {
+			Level fine = levels.get(l);
+			Level coarse = levels.get(l + 1);
+			double grow = Math.sqrt(fine.cityCount / (double) coarse.cityCount); // Same density of cities
+			double[] fineX = new double[fine.cityCount];
+			double[] fineY = new double[fine.cityCount];
+			for (int i = 0; i < fine.cityCount; i++) {
+				int parent = coarse.parent[i];
+				fineX[i] = x[parent] * grow + (random.nextDouble() - 0.5) * 0.1;
+				fineY[i] = y[parent] * grow + (random.nextDouble() - 0.5) * 0.1;
+			}
+			x = fineX;
+			y = fineY;
+			relax(fine, x, y, tree, REFINE_ITERATIONS, REFINE_STEP);
+		}
+
+		// Turn the layout so the route runs from left to right
+		if (start != -1 && end != -1 && start != end) {
+			double angle = Math.atan2(y[end] - y[start], x[end] - x[start]);
+			double cos = Math.cos(-angle);
+			double sin = Math.sin(-angle);
+			for (int i = 0; i < n; i++) {
+				double turnedX = x[i] * cos - y[i] * sin;
+				y[i] = x[i] * sin + y[i] * cos;
+				x[i] = turnedX;
+			}
+		}
+		return new GraphLayout(x, y, finest.from, finest.to);
+	}
+
+	// Moves the cities of one level along their forces for a number of
+	// iterations. The step grows while the total force keeps falling and
+	// shrinks when it rises (adaptive cooling, after Hu).
+	private static void relax(Level level, double[] x, double[] y, QuadTree tree, int iterations, double step) {
+		int n = level.cityCount;
+		if (n < 2)
+			return;
+		double[] forceX = new double[n];
+		double[] forceY = new double[n];
+		double energy = Double.MAX_VALUE;
+		int progress = 0;
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			tree.build(x, y, n);
+			for (int i = 0; i < n; i++) {
+				tree.push(i, x[i], y[i], forceX, forceY);
+				forceX[i] -= GRAVITY * x[i];
+				forceY[i] -= GRAVITY * y[i];
+			}
+			for (int s = 0; s < level.from.length; s++) {
+				int a = level.from[s];
+				int b = level.to[s];
+				double dx = x[a] - x[b];
+				double dy = y[a] - y[b];
+				double d = Math.sqrt(dx * dx + dy * dy); // Force d^2 along (dx, dy) / d
+				forceX[a] -= dx * d;
+				forceY[a] -= dy * d;
+				forceX[b] += dx * d;
+				forceY[b] += dy * d;
+			}
+
+			double previousEnergy = energy;
+			energy = 0;
+			for (int i = 0; i < n; i++) {
+				double length2 = forceX[i] * forceX[i] + forceY[i] * forceY[i];
+				energy += length2;
+				double length = Math.sqrt(length2);
+				if (length > 0) {
+					double move = Math.min(length, step) / length;
+					x[i] += forceX[i] * move;
+					y[i] += forceY[i] * move;
+				}
+			}
+			if (energy < previousEnergy) {
+				if (++progress >= 5) {
+					progress = 0;
+					step /= COOLING;
+				}
+			} else {
+				progress = 0;
+				step *= COOLING;
+			}
+		}
+	}
+
+	// Connection between two cities as (low << 32) | high, whatever the
+	// direction
+	private static long pair(int a, int b) {
+		return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+	}
+
+	public int getCityCount() {
+		return x.length;
+	}
+
+	public double getX(int city) {
+		return x[city];
+	}
+
+	public double getY(int city) {
+		return y[city];
+	}
+
+	public double getMinX() {
+		return minX;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxX() {
+		return maxX;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	// Connected pairs of cities, each drawn as one line
+	public int getSegmentCount() {
+		return segmentFrom.length;
+	}
+
+	public int getSegmentFrom(int segment) {
+		return segmentFrom[segment];
+	}
+
+	public int getSegmentTo(int segment) {
+		return segmentTo[segment];
+	}
+
+	/*
+	 * A cached layout and the graph and route ends it was made for.
+	 */
+	private static final class Entry {
+
+		final CityGraph graph;
+		final int start;
+		final int end;
+		final CompletableFuture<GraphLayout> layout;
+
+		Entry(CityGraph graph, int start, int end, CompletableFuture<GraphLayout> layout) {
+			this.graph = graph;
+			this.start = start;
+			this.end = end;
+			this.layout = layout;
+		}
+	}
+
+	/*
+	 * One graph of the coarsening: its cities, each connected pair of them
+	 * once and, for a coarsened level, the city each city of the finer level
+	 * was merged into.
+	 */
+	private static final class Level {
+
+		final int cityCount;
+		final int[] from;
+		final int[] to;
+		final int[] parent; // Indexed by the finer level's cities; null for the finest level
+
+		// Keeps the distinct pairs among pairs[0 .. count) that join two
+		// different cities
+		Level(int cityCount, long[] pairs, int count, int[] parent) {
+			this.cityCount = cityCount;
+			this.parent = parent;
+			Arrays.sort(pairs, 0, count);
+			int unique = 0;
+			for (int p = 0; p < count; p++) {
+				boolean loop = (int) (pairs[p] >>> 32) == (int) pairs[p];
+				if (!loop && (unique == 0 || pairs[p] != pairs[unique - 1]))
+					pairs[unique++] = pairs[p];
+			}
+			from = new int[unique];
+			to = new int[unique];
+			for (int p = 0; p < unique; p++) {
+				from[p] = (int) (pairs[p] >>> 32);
+				to[p] = (int) pairs[p];
+			}
+		}
+
+		// Merges each city, in random order, with its unmatched neighbour of
+		// lowest degree, if any
+		Level coarsen(Random random) {
+			int[] offsets = new int[cityCount + 1];
+			for (int p = 0; p < from.length; p++) {
+				offsets[from[p] + 1]++;
+				offsets[to[p] + 1]++;
+			}
+			for (int i = 0; i < cityCount; i++)
+				offsets[i + 1] += offsets[i];
+			int[] neighbours = new int[2 * from.length];
+			int[] filled = Arrays.copyOf(offsets, cityCount);
+			for (int p = 0; p < from.length; p++) {
+				neighbours[filled[from[p]]++] = to[p];
+				neighbours[filled[to[p]]++] = from[p];
+			}
+
+			int[] order = new int[cityCount];
+			for (int i = 0; i < cityCount; i++) {
+				int j = random.nextInt(i + 1);
+				order[i] = order[j];
+				order[j] = i;
+			}
+			int[] merged = new int[cityCount];
+			Arrays.fill(merged, -1);
+			int coarseCount = 0;
+			for (int u : order) {
+				if (merged[u] != -1)
+					continue;
+				int match = -1;
+				for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+					int v = neighbours[k];
+					if (merged[v] == -1
+							&& (match == -1 || offsets[v + 1] - offsets[v] < offsets[match + 1] - offsets[match]))
+						match = v;
+				}
+				merged[u] = coarseCount;
+				if (match != -1)
+					merged[match] = coarseCount;
+				coarseCount++;
+			}
+
+			long[] pairs = new long[from.length];
+			for (int p = 0; p < from.length; p++)
+				pairs[p] = pair(merged[from[p]], merged[to[p]]);
+			return new Level(coarseCount, pairs, pairs.length, merged);
+		}
+	}
+
+	/*
+	 * Barnes-Hut quadtree over the cities, rebuilt every iteration into the
+	 * same flat arrays. Each cell keeps its cities' count and centre of mass
+	 * (their summed positions while building); a leaf holds one city, or
+	 * several closer than MIN_CELL.
+	 */
+	private static final class QuadTree {
+
+		private double[] centreX;
+		private double[] centreY;
+		private double[] half; // Half the cell's width
+		private double[] massX;
+		private double[] massY;
+		private int[] mass;
+		private int[] body; // City of a leaf, -1 for an inner cell
+		private int[] children; // Four per cell, -1 where empty
+		private int cellCount;
+		private int[] stack = new int[256];
+
+		QuadTree(int cityCount) {
+			allocate(Math.max(16, 2 * cityCount));
+		}
+
+		private void allocate(int capacity) {
+			centreX = centreX == null ? new double[capacity] : Arrays.copyOf(centreX, capacity);
+			centreY = centreY == null ? new double[capacity] : Arrays.copyOf(centreY, capacity);
+			half = half == null ? new double[capacity] : Arrays.copyOf(half, capacity);
+			massX = massX == null ? new double[capacity] : Arrays.copyOf(massX, capacity);
+			massY = massY == null ? new double[capacity] : Arrays.copyOf(massY, capacity);
+			mass = mass == null ? new int[capacity] : Arrays.copyOf(mass, capacity);
+			body = body == null ? new int[capacity] : Arrays.copyOf(body, capacity);
+			children = children == null ? new int[4 * capacity] : Arrays.copyOf(children, 4 * capacity);
+		}
+
+		// Builds the tree over the first n cities
+		void build(double[] x, double[] y, int n) {
+			double lowX = x[0], highX = x[0], lowY = y[0], highY = y[0];
+			for (int i = 1; i < n; i++) {
+				lowX = Math.min(lowX, x[i]);
+				highX = Math.max(highX, x[i]);
+				lowY = Math.min(lowY, y[i]);
+				highY = Math.max(highY, y[i]);
+			}
+			cellCount = 0;
+			int root = newCell((lowX + highX) / 2, (lowY + highY) / 2,
+					Math.max(highX - lowX, highY - lowY) / 2 + MIN_CELL, -1);
+			for (int i = 0; i < n; i++)
+				insert(root, i, x[i], y[i]);
+			for (int cell = 0; cell < cellCount; cell++) {
+				massX[cell] /= mass[cell];
+				massY[cell] /= mass[cell];
+			}
+		}
+
+		private int newCell(double cx, double cy, double halfWidth, int city) {
+			if (cellCount == body.length)
+				allocate(2 * cellCount);
+			int cell = cellCount++;
+			centreX[cell] = cx;
+			centreY[cell] = cy;
+			half[cell] = halfWidth;
+			massX[cell] = 0;
+			massY[cell] = 0;
+			mass[cell] = 0;
+			body[cell] = city;
+			Arrays.fill(children, 4 * cell, 4 * cell + 4, -1);
+			return cell;
+		}
+
+		private int quadrant(int cell, double px, double py) {
+			return (px >= centreX[cell] ? 1 : 0) | (py >= centreY[cell] ? 2 : 0);
+		}
+
+		// Adds a city to a new leaf in the given quadrant of a cell
+		private void addLeaf(int cell, int quadrant, int city, double px, double py) {
+			double h = half[cell] / 2;
+			int leaf = newCell(centreX[cell] + ((quadrant & 1) != 0 ? h : -h),
+					centreY[cell] + ((quadrant & 2) != 0 ? h : -h), h, city);
+			massX[leaf] = px;
+			massY[leaf] = py;
+			mass[leaf] = 1;
+			children[4 * cell + quadrant] = leaf;
+		}
+
+		private void insert(int root, int city, double px, double py) {
+			int cell = root;
+			while (true) {
+				massX[cell] += px;
+				massY[cell] += py;
+				mass[cell]++;
+				int quadrant = quadrant(cell, px, py);
+				int child = children[4 * cell + quadrant];
+				if (child == -1) {
+					addLeaf(cell, quadrant, city, px, py);
+					return;
+				}
+				if (body[child] >= 0) {
+					if (half[child] < MIN_CELL) {
+						massX[child] += px;
+						massY[child] += py;
+						mass[child]++;
+						return;
+					}
+					// Split the leaf: its city moves one level down
+					int other = body[child];
+					body[child] = -1;
+					addLeaf(child, quadrant(child, massX[child], massY[child]), other, massX[child], massY[child]);
+				}
+				cell = child;
+			}
+		}
+
+		// Adds the push of all other cities on one city to its force, which is
+		// overwritten
+		void push(int city, double px, double py, double[] forceX, double[] forceY) {
+			double fx = 0, fy = 0;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				int m = mass[cell];
+				double dx = px - massX[cell];
+				double dy = py - massY[cell];
+				double d2 = dx * dx + dy * dy;
+				double width = 2 * half[cell];
+				if (body[cell] >= 0 || width * width < THETA * THETA * d2) {
+					if (body[cell] == city && m == 1)
+						continue;
+					double f = m / Math.max(d2, MIN_DISTANCE2); // Force k^2 / d along (dx, dy) / d
+					fx += dx * f;
+					fy += dy * f;
+				} else {
+					if (top + 4 > stack.length)
+						stack = Arrays.copyOf(stack, 2 * stack.length);
+					for (int q = 4 * cell; q < 4 * cell + 4; q++) {
+						if (children[q] != -1)
+							stack[top++] = children[q];
+					}
+				}
+			}
+			forceX[city] = fx;
+			forceY[city] = fy;
+		}
+	}
+}
@@ -0,0 +1,344 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/*
+  Versioned binary snapshot of a loaded network: city names, CSR adjacency
+  and (optionally) the solved cost / previous-city tables, the landmark
+  distances of DpMode.ALT and the contraction hierarchy of DpMode.CH.
+
+  Layout (little-endian; the int arrays are 4-byte aligned, the tables need
+  not be: with 2-byte cost cells and an odd N, 4-byte previous-city cells
+  start 2 bytes past a multiple of 4):
+    header (64 bytes): magic, version, input checksum, city count,
+                       connection count, flags, name byte count,
+                       cost and previous-city cell widths, landmark count K,
+                       hierarchy edge count H, DP mode (ordinal, or -1 if
+                       unknown)
+    int[N + 2]  end offsets of each name in the name bytes (cities, then
+                start and end city)
+    int[N + 1]  CSR offsets
+    int[E] x 3  targets, petrol costs, hotel costs
+    int[K]      landmark cities                  } only if FLAG_LANDMARKS
+    int[N * K] x 2  distances from and to them   }
+    int[N]      contraction rank of each city    } only if FLAG_HIERARCHY
+    int[H] x 5  edge from, to, weight, first and }
+                second replaced edge             }
+    N * N cells cost table        } only if FLAG_TABLES, 2 or 4 bytes
+    N * N cells previous city     } per cell as in the IntMatrix
+    byte[]      UTF-8 names
+
+  The header stores a checksum of the input file; read() rejects the snapshot
+  when the input has changed since it was written. It also records the
+  DpMode that solved the tables, since LEGACY breaks ties between equal-cost
+  routes differently from the blocked modes and so fills another
+  previous-city table. Files are written through a FileChannel. On reload
+  the small CSR arrays are bulk-copied out of mapped windows of up to 1 GB,
+  while the two N x N tables are not copied at all: they come back as
+  IntMatrix instances over the mapped file itself, with copy-on-write pages
+  so later updates never touch the snapshot.
+ */
+public final class GraphSnapshot {
+
+	public static final int VERSION = 4;
+
+	private static final int MAGIC = 0x50445254; // "TRDP"
+	private static final int HEADER_SIZE = 64;
+	private static final int FLAG_TABLES = 1;
+	private static final int FLAG_LANDMARKS = 2;
+	private static final int FLAG_HIERARCHY = 4;
+	private static final long WINDOW_SIZE = 1L << 30;
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private final CityGraph graph;
+	private final String startCity;
+	private final String endCity;
+	private final IntMatrix costTable;
+	private final IntMatrix previousCity;
+	private final Landmarks landmarks;
+	private final ContractionHierarchy hierarchy;
+	private final DpMode mode;
+
+	// The tables, landmarks and hierarchy may each be null if not saved; mode
+	// is the DpMode that solved the network, or null if unknown
+	public GraphSnapshot(CityGraph graph, String startCity, String endCity, IntMatrix costTable,
+			IntMatrix previousCity, Landmarks landmarks, ContractionHierarchy hierarchy, DpMode mode) {
+		this.graph = graph;
+		this.startCity = startCity;
+		this.endCity = endCity;
+		this.costTable = costTable;
+		this.previousCity = previousCity;
+		this.landmarks = landmarks;
+		this.hierarchy = hierarchy;
+		this.mode = mode;
+	}
+
+	public CityGraph getGraph() {
+		return graph;
+	}
+
+	public String getStartCity() {
+		return startCity;
+	}
+
+	public String getEndCity() {
+		return endCity;
+	}
+
+	// Cost table, or null if the snapshot was saved or read without tables.
+	// The caller owns the matrix and must close it.
+	public IntMatrix getCostTable() {
+		return costTable;
+	}
+
+	// Previous-city table, or null if saved or read without tables
+	public IntMatrix getPreviousCity() {
+		return previousCity;
+	}
+
+	// Landmark distances, or null if saved or read without them
+	public Landmarks getLandmarks() {
+		return landmarks;
+	}
+
+	// Contraction hierarchy, or null if saved or read without it
+	public ContractionHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	// DpMode that solved the network, or null if not recorded
+	public DpMode getMode() {
+		return mode;
+	}
+
+	// Checksum identifying the exact contents of an input file
+	public static long checksum(Path input) throws IOException {
+		try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+			long size = channel.size();
+			CRC32C crc = new CRC32C();
+			for (long position = 0; position < size; position += WINDOW_SIZE) {
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position)));
+			}
+			return size << 32 ^ crc.getValue();
+		}
+	}
+
+	// Writes the snapshot to a temporary file next to the target, then moves it
+	// into place so readers never see a half-written snapshot
+	public void write(Path file, long inputChecksum) throws IOException {
+		int n = graph.getCityCount();
+		int e = graph.getConnectionCount();
+		boolean tables = costTable != null && previousCity != null;
+		int flags = (tables ? FLAG_TABLES : 0) | (landmarks != null ? FLAG_LANDMARKS : 0)
+				| (hierarchy != null ? FLAG_HIERARCHY : 0);
+
+		// Names are encoded once to know the byte count up front
+		byte[][] encoded = new byte[n + 2][];
+		int[] nameEnds = new int[n + 2];
+		int nameBytes = 0;
+		for (int i = 0; i < n + 2; i++) {
+			String name = i < n ? graph.getCityName(i) : (i == n ? startCity : endCity);
+			encoded[i] = name.getBytes(StandardCharsets.UTF_8);
+			nameBytes += encoded[i].length;
+			nameEnds[i] = nameBytes;
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(inputChecksum).putInt(n).putInt(e)
+					.putInt(flags).putInt(nameBytes).putInt(tables ? costTable.getCellBytes() : 0)
+					.putInt(tables ? previousCity.getCellBytes() : 0).putInt(landmarks != null ? landmarks.getCount() : 0)
+					.putInt(hierarchy != null ? hierarchy.getEdgeCount() : 0).putInt(mode != null ? mode.ordinal() : -1);
+			buffer.position(HEADER_SIZE);
+
+			writeInts(channel, buffer, nameEnds);
+			writeInts(channel, buffer, graph.offsets());
+			writeInts(channel, buffer, graph.targets());
+			writeInts(channel, buffer, graph.petrolCosts());
+			writeInts(channel, buffer, graph.hotelCosts());
+			if (landmarks != null) {
+				writeInts(channel, buffer, landmarks.landmarks());
+				writeInts(channel, buffer, landmarks.fromLandmark());
+				writeInts(channel, buffer, landmarks.toLandmark());
+			}
+			if (hierarchy != null) {
+				writeInts(channel, buffer, hierarchy.rank());
+				writeInts(channel, buffer, hierarchy.edgeFrom());
+				writeInts(channel, buffer, hierarchy.edgeTo());
+				writeInts(channel, buffer, hierarchy.edgeWeight());
+				writeInts(channel, buffer, hierarchy.edgeFirst());
+				writeInts(channel, buffer, hierarchy.edgeSecond());
+			}
+			if (tables) {
+				flush(channel, buffer);
+				costTable.writeTo(channel);
+				previousCity.writeTo(channel);
+			}
+			for (byte[] name : encoded) {
+				for (int offset = 0; offset < name.length;) {
+					if (!buffer.hasRemaining())
+						flush(channel, buffer);
+					int count = Math.min(buffer.remaining(), name.length - offset);
+					buffer.put(name, offset, count);
+					offset += count;
+				}
+			}
+			flush(channel, buffer);
+			channel.force(false);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	// Reads a snapshot written for the input with the given checksum, mapping
+	// the DP tables only if withTables is set and loading the landmark
+	// distances and contraction hierarchy (if saved) only if withLandmarks and
+	// withHierarchy are. Returns null if the file is missing, from another
+	// format version, or stale.
+	public static GraphSnapshot read(Path file, long inputChecksum, boolean withTables, boolean withLandmarks,
+			boolean withHierarchy) throws IOException {
+		FileChannel channel;
+		try {
+			// Private (copy-on-write) mappings need a channel open for writing
+			channel = withTables ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+					: FileChannel.open(file, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+
+		try (channel) {
+			if (channel.size() < HEADER_SIZE)
+				return null;
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != inputChecksum)
+				return null;
+			int n = header.getInt();
+			int e = header.getInt();
+			int flags = header.getInt();
+			boolean tables = (flags & FLAG_TABLES) != 0;
+			int nameBytes = header.getInt();
+			int costCellBytes = header.getInt();
+			int previousCellBytes = header.getInt();
+			int landmarkCount = header.getInt();
+			int hierarchyEdges = header.getInt();
+			int modeOrdinal = header.getInt();
+			DpMode mode = modeOrdinal >= 0 && modeOrdinal < DpMode.values().length ? DpMode.values()[modeOrdinal]
+					: null;
+			if ((flags & FLAG_LANDMARKS) == 0)
+				landmarkCount = 0;
+			if ((flags & FLAG_HIERARCHY) == 0)
+				hierarchyEdges = -1;
+
+			long position = HEADER_SIZE;
+			int[] nameEnds = new int[n + 2];
+			position = readInts(channel, position, nameEnds);
+			int[] offsets = new int[n + 1];
+			position = readInts(channel, position, offsets);
+			int[] targets = new int[e];
+			position = readInts(channel, position, targets);
+			int[] petrol = new int[e];
+			position = readInts(channel, position, petrol);
+			int[] hotel = new int[e];
+			position = readInts(channel, position, hotel);
+			Landmarks landmarks = null;
+			if (landmarkCount > 0) {
+				long distanceBytes = (long) n * landmarkCount * Integer.BYTES;
+				if (withLandmarks) {
+					int[] landmarkCities = new int[landmarkCount];
+					position = readInts(channel, position, landmarkCities);
+					int[] fromLandmark = new int[n * landmarkCount];
+					position = readInts(channel, position, fromLandmark);
+					int[] toLandmark = new int[n * landmarkCount];
+					position = readInts(channel, position, toLandmark);
+					landmarks = new Landmarks(n, landmarkCities, fromLandmark, toLandmark);
+				} else {
+					position += (long) landmarkCount * Integer.BYTES + 2 * distanceBytes;
+				}
+			}
+			ContractionHierarchy hierarchy = null;
+			if (hierarchyEdges >= 0) {
+				if (withHierarchy) {
+					int[] rank = new int[n];
+					position = readInts(channel, position, rank);
+					int[][] edges = new int[5][hierarchyEdges];
+					for (int[] column : edges)
+						position = readInts(channel, position, column);
+					hierarchy = new ContractionHierarchy(rank, edges[0], edges[1], edges[2], edges[3], edges[4]);
+				} else {
+					position += ((long) n + 5L * hierarchyEdges) * Integer.BYTES;
+				}
+			}
+			IntMatrix cost = null;
+			IntMatrix previous = null;
+			if (tables) {
+				long costBytes = (long) n * n * costCellBytes;
+				if (withTables) {
+					cost = IntMatrix.map(channel, position, n, costCellBytes);
+					previous = IntMatrix.map(channel, position + costBytes, n, previousCellBytes);
+				}
+				position += costBytes + (long) n * n * previousCellBytes;
+			}
+
+			byte[] blob = new byte[nameBytes];
+			channel.map(FileChannel.MapMode.READ_ONLY, position, nameBytes).get(blob);
+			String[] names = new String[n];
+			for (int i = 0; i < n; i++)
+				names[i] = name(blob, nameEnds, i);
+
+			CityGraph graph = new CityGraph(names, offsets, targets, petrol, hotel);
+			return new GraphSnapshot(graph, name(blob, nameEnds, n), name(blob, nameEnds, n + 1), cost, previous,
+					landmarks, hierarchy, mode);
+		}
+	}
+
+	private static String name(byte[] blob, int[] nameEnds, int i) {
+		int start = i == 0 ? 0 : nameEnds[i - 1];
+		return new String(blob, start, nameEnds[i] - start, StandardCharsets.UTF_8);
+	}
+
+	private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+		for (int offset = 0; offset < values.length;) {
+			if (buffer.remaining() < Integer.BYTES)
+				flush(channel, buffer);
+			int count = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+			buffer.asIntBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * Integer.BYTES);
+			offset += count;
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	// Fills values from the mapped file starting at position; returns the
+	// position after the array
+	private static long readInts(FileChannel channel, long position, int[] values) throws IOException {
+		long windowInts = WINDOW_SIZE / Integer.BYTES;
+		for (int offset = 0; offset < values.length;) {
+			int count = (int) Math.min(windowInts, values.length - offset);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+					(long) count * Integer.BYTES);
+			window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, offset, count);
+			position += (long) count * Integer.BYTES;
+			offset += count;
+		}
+		return position;
+	}
+}
@@ -1,152 +1,330 @@
 package application;
 
-import javafx.scene.layout.Pane;
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.input.ZoomEvent;
+import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
 
 /*
   This class visualizes a network of cities as a graph using JavaFX.
   Cities are represented as circles, connections as lines,
   and a specific path (optimal or alternative) is highlighted.
+
+  Positions come from GraphLayout, computed in the background the first time
+  a network's connections are shown. Everything is painted on one Canvas, at
+  most once per frame, and only what falls inside the view: connections and
+  cities outside it are skipped, and names and costs are only written once
+  the view is zoomed in far enough for them to be read (at most MAX_LABELS
+  of each). Drag to pan, scroll or pinch to zoom, double-click to fit.
  */
-public class GraphVisualizer extends Pane {
-	private City[] cities;
+public class GraphVisualizer extends Region {
+
+	private static final double FIT_MARGIN = 30;
+	private static final double MAX_SCALE = 160; // Pixels per layout unit (ideal connection length)
+	private static final double MAX_RADIUS = 15;
+	private static final double NAME_RADIUS = 9; // Smallest city radius that shows names
+	private static final double COST_LENGTH = 70; // Shortest connection on screen that shows its cost
+	private static final int MAX_LABELS = 300;
+	private static final double ZOOM_SPEED = 0.004; // Per pixel of scroll
+
+	private static final Color EDGE_COLOR = Color.LIGHTGRAY;
+	private static final Color PATH_COLOR = Color.SADDLEBROWN;
+	private static final Color CITY_FILL = Color.WHITE;
+	private static final Color PATH_CITY_FILL = Color.web("#f3d79e");
+	private static final Color PATH_END_FILL = Color.web("#c58f3b");
+	private static final Color LABEL_FILL = Color.web("#fff9f0");
+	private static final Color LABEL_TEXT = Color.web("#4b2e1e");
+	private static final Font COST_FONT = Font.font("Arial", FontWeight.BOLD, 12);
+	private static final Font NAME_FONT = Font.font(12);
+	private static final Font MESSAGE_FONT = Font.font("Georgia", FontWeight.BOLD, 16);
 
-	// City names in the graph
-	private String[] cityNames = { "Start", "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "End" };
+	private final CityGraph graph;
+	private final int[] path;
+	private final boolean[] onPath;
+	private final Canvas canvas = new Canvas();
+	private final int[] labelled = new int[MAX_LABELS]; // Scratch list of what to label in one frame
 
-	// Fixed coordinates for each city to control layout positioning
-	private double[][] positions = { { 50, 250 }, { 150, 100 }, { 150, 250 }, { 150, 400 }, { 300, 150 }, { 300, 300 },
-			{ 450, 100 }, { 450, 200 }, { 450, 300 }, { 450, 400 }, { 600, 100 }, { 600, 250 }, { 600, 400 },
-			{ 750, 250 } };
+	private GraphLayout layout; // null until computed
+	private String message;
+	private double scale = 1; // Screen = layout * scale + offset
+	private double offsetX;
+	private double offsetY;
+	private double fitScale; // Scale that shows the whole network
+	private boolean fitted;
+	private boolean dirty = true;
+	private double dragX;
+	private double dragY;
+
+	// Repaints at most once per frame, and only while something changed
+	private final AnimationTimer painter = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			if (dirty) {
+				dirty = false;
+				draw();
+			}
+		}
+	};
 
 	/*
-	 * Constructor: Builds the visual graph based on the given city data and a
-	 * specific path.
+	 * Constructor: Builds the visual graph based on a solved network and a
+	 * specific path, given as the city ids path[0 .. pathLength).
 	 */
-	// Inside the constructor
-	public GraphVisualizer(City[] cities, String path) {
-		this.cities = cities; // Fix to avoid NullPointerException
+	public GraphVisualizer(SolvedNetwork network, int[] path, int pathLength) {
+		this.graph = network.getGraph();
+		this.path = Arrays.copyOf(path, Math.max(0, pathLength));
+		this.onPath = new boolean[graph.getCityCount()];
+		for (int city : this.path)
+			onPath[city] = true;
 		setPrefSize(1000, 600);
 		setStyle("-fx-background-color: white;");
+		getChildren().add(canvas);
 
-		// Draw all connections (edges)
-		for (City city : cities) {
-			String from = city.getCityName();
-			double[] fromPos = getCityPosition(from);
-			if (fromPos == null)
-				continue;
-
-			for (String to : city.getConnectedCityNames()) {
-				double[] toPos = getCityPosition(to);
-				if (toPos == null)
-					continue;
-
-				Line edge = new Line(fromPos[0], fromPos[1], toPos[0], toPos[1]);
-				edge.setStroke(Color.LIGHTGRAY);
-				edge.setStrokeWidth(1);
-				getChildren().add(edge);
-
-				City fromCityObj = getCityByName(from);
-				int cost = fromCityObj != null ? fromCityObj.getCostTo(to) : -1;
-
-				if (cost != -1) {
-					double midX = (fromPos[0] + toPos[0]) / 2;
-					double midY = (fromPos[1] + toPos[1]) / 2;
-
-					Rectangle background = new Rectangle(midX - 12, midY - 10, 24, 18);
-					background.setArcWidth(8);
-					background.setArcHeight(8);
-					background.setFill(Color.web("#fff9f0"));
-					background.setStroke(Color.LIGHTGRAY);
-					background.setStrokeWidth(0.5);
-
-					Text costLabel = new Text(String.valueOf(cost));
-					costLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-					costLabel.setFill(Color.web("#4b2e1e"));
-					costLabel.setX(midX - 6);
-					costLabel.setY(midY + 4);
-
-					getChildren().addAll(background, costLabel);
-				}
+		message = "Laying out " + graph.getCityCount() + " cities...";
+		GraphLayout.of(network).whenComplete((computed, error) -> Platform.runLater(() -> {
+			if (error != null) {
+				message = "The network could not be laid out: " + error.getMessage();
+			} else {
+				layout = computed;
+				fit();
 			}
+			dirty = true;
+		}));
+
+		canvas.setOnMousePressed(this::startDrag);
+		canvas.setOnMouseDragged(this::drag);
+		canvas.setOnMouseReleased(event -> setCursor(Cursor.DEFAULT));
+		canvas.setOnMouseClicked(event -> {
+			if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2)
+				fit();
+		});
+		canvas.setOnScroll(this::scroll);
+		canvas.setOnZoom(this::zoom);
+		sceneProperty().addListener((observable, before, after) -> {
+			if (after != null)
+				painter.start();
+			else
+				painter.stop();
+		});
+	}
+
+	@Override
+	protected void layoutChildren() {
+		double width = getWidth();
+		double height = getHeight();
+		if (width != canvas.getWidth() || height != canvas.getHeight()) {
+			canvas.setWidth(width);
+			canvas.setHeight(height);
+			if (!fitted)
+				fit();
+			dirty = true;
 		}
+	}
 
-		// Highlight the path
-		String[] pathCities = path != null ? path.split(" -> ") : new String[0];
-		for (int i = 0; i < pathCities.length - 1; i++) {
-			double[] from = getCityPosition(pathCities[i]);
-			double[] to = getCityPosition(pathCities[i + 1]);
-			if (from == null || to == null)
-				continue;
+	// Scales and centres the whole network in the view
+	private void fit() {
+		double width = canvas.getWidth();
+		double height = canvas.getHeight();
+		if (layout == null || width == 0 || height == 0)
+			return;
+		double spanX = layout.getMaxX() - layout.getMinX();
+		double spanY = layout.getMaxY() - layout.getMinY();
+		scale = MAX_SCALE;
+		if (spanX > 0)
+			scale = Math.min(scale, (width - 2 * FIT_MARGIN) / spanX);
+		if (spanY > 0)
+			scale = Math.min(scale, (height - 2 * FIT_MARGIN) / spanY);
+		scale = Math.max(scale, 1e-6);
+		fitScale = scale;
+		offsetX = width / 2 - (layout.getMinX() + spanX / 2) * scale;
+		offsetY = height / 2 - (layout.getMinY() + spanY / 2) * scale;
+		fitted = true;
+		dirty = true;
+	}
+
+	private void startDrag(MouseEvent event) {
+		dragX = event.getX();
+		dragY = event.getY();
+		setCursor(Cursor.MOVE);
+	}
+
+	private void drag(MouseEvent event) {
+		offsetX += event.getX() - dragX;
+		offsetY += event.getY() - dragY;
+		dragX = event.getX();
+		dragY = event.getY();
+		dirty = true;
+	}
+
+	private void scroll(ScrollEvent event) {
+		zoomAt(event.getX(), event.getY(), Math.exp(event.getDeltaY() * ZOOM_SPEED));
+		event.consume();
+	}
 
-			Line highlight = new Line(from[0], from[1], to[0], to[1]);
-			highlight.setStroke(Color.SADDLEBROWN);
-			highlight.setStrokeWidth(3);
-			getChildren().add(highlight);
+	private void zoom(ZoomEvent event) {
+		zoomAt(event.getX(), event.getY(), event.getZoomFactor());
+		event.consume();
+	}
+
+	// Zooms by a factor, keeping the point under (x, y) in place
+	private void zoomAt(double x, double y, double factor) {
+		if (layout == null)
+			return;
+		double newScale = Math.min(4 * MAX_SCALE, Math.max(fitScale / 4, scale * factor));
+		factor = newScale / scale;
+		offsetX = x - (x - offsetX) * factor;
+		offsetY = y - (y - offsetY) * factor;
+		scale = newScale;
+		dirty = true;
+	}
+
+	private void draw() {
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		double width = canvas.getWidth();
+		double height = canvas.getHeight();
+		gc.setFill(Color.WHITE);
+		gc.fillRect(0, 0, width, height);
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.setTextBaseline(VPos.CENTER);
+		if (layout == null) {
+			gc.setFill(LABEL_TEXT);
+			gc.setFont(MESSAGE_FONT);
+			gc.fillText(message, width / 2, height / 2);
+			return;
 		}
 
-		// Draw nodes
-		for (int i = 0; i < cityNames.length; i++) {
-			String name = cityNames[i];
-			double x = positions[i][0];
-			double y = positions[i][1];
+		double radius = Math.min(MAX_RADIUS, scale * 0.15);
+		double margin = radius + 1;
 
-			Color fillColor = Color.WHITE;
-			if (isInPath(name, pathCities)) {
-				fillColor = name.equalsIgnoreCase("Start") || name.equalsIgnoreCase("End") ? Color.web("#c58f3b")
-						: Color.web("#f3d79e");
-			}
+		// Connections crossing the view, as one path; those shorter than a
+		// pixel would only blur into their cities
+		int costCount = 0;
+		gc.setStroke(EDGE_COLOR);
+		gc.setLineWidth(1);
+		gc.beginPath();
+		for (int s = 0; s < layout.getSegmentCount(); s++) {
+			int a = layout.getSegmentFrom(s);
+			int b = layout.getSegmentTo(s);
+			double ax = screenX(a), ay = screenY(a), bx = screenX(b), by = screenY(b);
+			if (Math.max(ax, bx) < -margin || Math.min(ax, bx) > width + margin || Math.max(ay, by) < -margin
+					|| Math.min(ay, by) > height + margin)
+				continue;
+			double length = Math.abs(ax - bx) + Math.abs(ay - by);
+			if (length < 1)
+				continue;
+			gc.moveTo(ax, ay);
+			gc.lineTo(bx, by);
+			if (length >= COST_LENGTH && costCount < MAX_LABELS)
+				labelled[costCount++] = s;
+		}
+		gc.stroke();
 
-			Circle node = new Circle(x, y, 15, fillColor);
-			node.setStroke(Color.SADDLEBROWN);
-			getChildren().add(node);
+		// Costs at the middle of the longer connections
+		gc.setFont(COST_FONT);
+		for (int l = 0; l < costCount; l++) {
+			int a = layout.getSegmentFrom(labelled[l]);
+			int b = layout.getSegmentTo(labelled[l]);
+			drawCost(gc, a, b, (screenX(a) + screenX(b)) / 2, (screenY(a) + screenY(b)) / 2);
+		}
 
-			Text label = new Text(name);
-			label.setX(x - 12);
-			label.setY(y + 5);
-			label.setFill(Color.BLACK);
-			getChildren().add(label);
+		// Highlight the path
+		gc.setStroke(PATH_COLOR);
+		gc.setLineWidth(3);
+		gc.beginPath();
+		for (int i = 0; i + 1 < path.length; i++) {
+			gc.moveTo(screenX(path[i]), screenY(path[i]));
+			gc.lineTo(screenX(path[i + 1]), screenY(path[i + 1]));
 		}
-	}
+		gc.stroke();
 
-	/*
-	 * Returns the screen coordinates of a city based on its name.
-	 */
-	private double[] getCityPosition(String cityName) {
-		for (int i = 0; i < cityNames.length; i++) {
-			if (cityNames[i].equalsIgnoreCase(cityName)) {
-				return positions[i];
-			}
+		// Cities in view: circles while they are large enough to see, dots
+		// otherwise; cities on the path are drawn over the others
+		int nameCount = 0;
+		gc.setStroke(PATH_COLOR);
+		gc.setLineWidth(1);
+		gc.setFill(radius >= 2 ? CITY_FILL : PATH_COLOR);
+		gc.beginPath();
+		for (int city = 0; city < layout.getCityCount(); city++) {
+			double x = screenX(city), y = screenY(city);
+			if (x < -margin || x > width + margin || y < -margin || y > height + margin)
+				continue;
+			if (radius >= NAME_RADIUS && nameCount < MAX_LABELS && !onPath[city])
+				labelled[nameCount++] = city;
+			if (!onPath[city])
+				addCity(gc, x, y, radius);
+		}
+		gc.fill();
+		if (radius >= 2)
+			gc.stroke();
+		for (int i = 0; i < path.length; i++) {
+			int city = path[i];
+			gc.setFill(i == 0 || i == path.length - 1 ? PATH_END_FILL : PATH_CITY_FILL);
+			gc.beginPath();
+			addCity(gc, screenX(city), screenY(city), Math.max(radius, 3));
+			gc.fill();
+			gc.stroke();
 		}
-		return null;
-	}
 
-	/*
-	 * Checks if a city is part of the given path.
-	 * 
-	 */
-	private boolean isInPath(String city, String[] pathArray) {
-		for (String c : pathArray) {
-			if (c.equalsIgnoreCase(city)) {
-				return true;
-			}
+		// Names inside the cities
+		if (radius >= NAME_RADIUS) {
+			gc.setFill(Color.BLACK);
+			gc.setFont(NAME_FONT);
+			for (int city : path)
+				gc.fillText(graph.getCityName(city), screenX(city), screenY(city), 2 * radius + 8);
+			for (int l = 0; l < nameCount; l++)
+				gc.fillText(graph.getCityName(labelled[l]), screenX(labelled[l]), screenY(labelled[l]),
+						2 * radius + 8);
 		}
-		return false;
 	}
 
-	private City getCityByName(String name) {
-		for (City city : cities) {
-			if (city.getCityName().equalsIgnoreCase(name)) {
-				return city;
-			}
+	// Adds a city's circle (or, when tiny, a square dot) to the current path
+	private static void addCity(GraphicsContext gc, double x, double y, double radius) {
+		if (radius >= 2) {
+			gc.moveTo(x + radius, y);
+			gc.arc(x, y, radius, radius, 0, 360);
+		} else {
+			gc.rect(x - 1, y - 1, 2, 2);
 		}
-		return null;
+	}
+
+	// Cost label of a connection, showing both directions if they differ
+	private void drawCost(GraphicsContext gc, int a, int b, double x, double y) {
+		int forward = graph.getCostTo(a, b);
+		int backward = graph.getCostTo(b, a);
+		String text;
+		if (forward == -1 || backward == -1 || forward == backward)
+			text = String.valueOf(forward != -1 ? forward : backward);
+		else
+			text = forward + " / " + backward;
+		double labelWidth = 12 + 7 * text.length();
+		gc.setFill(LABEL_FILL);
+		gc.fillRoundRect(x - labelWidth / 2, y - 9, labelWidth, 18, 8, 8);
+		gc.setStroke(EDGE_COLOR);
+		gc.setLineWidth(0.5);
+		gc.strokeRoundRect(x - labelWidth / 2, y - 9, labelWidth, 18, 8, 8);
+		gc.setFill(LABEL_TEXT);
+		gc.fillText(text, x, y);
+	}
+
+	private double screenX(int city) {
+		return layout.getX(city) * scale + offsetX;
+	}
+
+	private double screenY(int city) {
+		return layout.getY(city) * scale + offsetY;
 	}
 
 }
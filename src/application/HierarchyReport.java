@@ -0,0 +1,96 @@
+package application;
+
+import java.util.Random;
+
+/*
+  Command-line report on contraction hierarchies: preprocessing time and
+  size, then plain Dijkstra against the hierarchy query on the same random
+  start -> end queries over a generated graph.
+
+  Usage: java application.HierarchyReport [cities] [queries] [max cost]
+  Defaults to a 100000-city geometric network with connection costs up to
+  100 and 1000 queries. Every hierarchy cost is checked against Dijkstra;
+  the report also counts the paths whose city sequence is identical (the
+  others are different routes of the same cost, which only exist when
+  costs tie).
+ */
+public class HierarchyReport {
+
+	private static final int AVG_DEGREE = 6;
+
+	public static void main(String[] args) {
+		int cities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int maxCost = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+		CityGraph graph = CityGraph.fromCities(GraphGenerator.geometric(cities, AVG_DEGREE, maxCost, cities));
+		long start = System.nanoTime();
+		ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+		System.out.printf("%d cities, %d connections, hierarchy built in %.1f ms with %d shortcuts%n", cities,
+				graph.getConnectionCount(), (System.nanoTime() - start) / 1e6, hierarchy.getShortcutCount());
+
+		Random random = new Random(cities);
+		int[] from = new int[queries];
+		int[] to = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			from[q] = random.nextInt(cities);
+			to[q] = random.nextInt(cities);
+		}
+
+		// Dijkstra first, recording costs and whether each path matches
+		SingleSourceDijkstra dijkstra = new SingleSourceDijkstra(graph);
+		ContractionHierarchy.Query query = hierarchy.newQuery();
+		int reachable = 0;
+		int identical = 0;
+		for (int q = 0; q < queries; q++) {
+			dijkstra.run(from[q], to[q]);
+			query.run(from[q], to[q]);
+			int cost = dijkstra.getCostTo(to[q]);
+			if (query.getCostTo(to[q]) != cost)
+				throw new IllegalStateException(
+						"Query " + q + ": hierarchy cost " + query.getCostTo(to[q]) + ", Dijkstra cost " + cost);
+			if (cost == ContractionHierarchy.INF)
+				continue;
+			reachable++;
+			if (samePath(dijkstra, query))
+				identical++;
+		}
+
+		// Timed separately so neither search evicts the other's data
+		long dijkstraSettled = 0;
+		start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			dijkstra.run(from[q], to[q]);
+			dijkstraSettled += dijkstra.getSettledCount();
+		}
+		long dijkstraNanos = System.nanoTime() - start;
+
+		long hierarchySettled = 0;
+		start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			query.run(from[q], to[q]);
+			hierarchySettled += query.getSettledCount();
+		}
+		long hierarchyNanos = System.nanoTime() - start;
+
+		System.out.printf("%10s %16s %14s%n", "search", "settled (avg)", "latency (us)");
+		print("dijkstra", dijkstraSettled, dijkstraNanos, queries);
+		print("ch", hierarchySettled, hierarchyNanos, queries);
+		System.out.printf("%d of %d paths identical to Dijkstra's, all costs equal%n", identical, reachable);
+	}
+
+	// True if the hierarchy's path is the one Dijkstra's previous cities give
+	private static boolean samePath(SingleSourceDijkstra dijkstra, ContractionHierarchy.Query query) {
+		int city = query.getPathCity(query.getPathLength() - 1);
+		for (int i = query.getPathLength() - 1; i > 0; i--) {
+			city = dijkstra.getPreviousCity(city);
+			if (city != query.getPathCity(i - 1))
+				return false;
+		}
+		return true;
+	}
+
+	private static void print(String name, long settled, long nanos, int queries) {
+		System.out.printf("%10s %16.0f %14.1f%n", name, (double) settled / queries, nanos / 1e3 / queries);
+	}
+}
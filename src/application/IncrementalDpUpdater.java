@@ -0,0 +1,110 @@
+package application;
+
+/*
+  Repairs the Floyd-Warshall tables after the cost of a single connection
+  changes, instead of rebuilding them from scratch.
+
+  Tables are the off-heap cost / previous-city matrices produced by
+  fillDpTable(); each touched row is copied out, updated and written back.
+  The effective weight of a connection u -> v is the cheapest direct
+  connection between the two cities.
+    - Cheaper connection: every pair (i, j) is relaxed once through the new
+      u -> v hop, O(N^2).
+    - More expensive connection: only rows i whose best route to v used the
+      old u -> v hop can change. Those rows are recomputed with a single-source
+      search on the new graph; all other rows are left untouched.
+ */
+public class IncrementalDpUpdater {
+
+	private static final int INF = Integer.MAX_VALUE;
+
+	private IncrementalDpUpdater() {
+	}
+
+	// Updates cost / previous for the change of connection from -> to between
+	// oldGraph and newGraph. Returns the number of cost cells that changed.
+	public static int apply(CityGraph oldGraph, CityGraph newGraph, int from, int to, IntMatrix cost,
+			IntMatrix previous) {
+		if (from == to)
+			return 0; // A connection back to the same city never lies on a best route
+
+		int oldWeight = oldGraph.getCheapestCost(from, to);
+		int newWeight = newGraph.getCheapestCost(from, to);
+		if (newWeight < oldWeight)
+			return relaxThroughEdge(newGraph.getCityCount(), from, to, newWeight, cost, previous);
+		if (newWeight > oldWeight)
+			return recomputeAffectedRows(newGraph, from, to, oldWeight, cost, previous);
+		return 0;
+	}
+
+	// Decrease: try i -> ... -> from -> to -> ... -> j for every pair. Row 'to'
+	// itself cannot improve (costs are non-negative), so it is copied out once.
+	private static int relaxThroughEdge(int n, int from, int to, int weight, IntMatrix cost, IntMatrix previous) {
+		int[] toCost = new int[n];
+		int[] toPrevious = new int[n];
+		cost.getRow(to, 0, toCost, 0, n);
+		previous.getRow(to, 0, toPrevious, 0, n);
+		int[] rowCost = new int[n];
+		int[] rowPrevious = new int[n];
+
+		int changed = 0;
+		for (int i = 0; i < n; i++) {
+			int costToFrom = cost.get(i, from);
+			if (costToFrom == INF)
+				continue;
+			int viaEdge = BlockedFloydWarshall.addSaturated(costToFrom, weight);
+			cost.getRow(i, 0, rowCost, 0, n);
+			previous.getRow(i, 0, rowPrevious, 0, n);
+			int rowChanged = 0;
+			for (int j = 0; j < n; j++) {
+				int costFromTo = toCost[j];
+				if (costFromTo == INF)
+					continue;
+				int newCost = BlockedFloydWarshall.addSaturated(viaEdge, costFromTo);
+				if (newCost < rowCost[j]) {
+					rowCost[j] = newCost;
+					rowPrevious[j] = (j == to) ? from : toPrevious[j];
+					rowChanged++;
+				}
+			}
+			if (rowChanged > 0) {
+				cost.setRow(i, 0, rowCost, 0, n);
+				previous.setRow(i, 0, rowPrevious, 0, n);
+				changed += rowChanged;
+			}
+		}
+		return changed;
+	}
+
+	// Increase: rows whose cost to 'to' went through the old connection are
+	// searched again on the new graph
+	private static int recomputeAffectedRows(CityGraph graph, int from, int to, int oldWeight, IntMatrix cost,
+			IntMatrix previous) {
+		int n = graph.getCityCount();
+		SingleSourceDijkstra search = null;
+		int[] rowCost = new int[n];
+		int[] rowPrevious = new int[n];
+		int changed = 0;
+		for (int i = 0; i < n; i++) {
+			int costToFrom = cost.get(i, from);
+			if (costToFrom == INF || BlockedFloydWarshall.addSaturated(costToFrom, oldWeight) != cost.get(i, to))
+				continue;
+
+			if (search == null)
+				search = new SingleSourceDijkstra(graph);
+			search.run(i, -1);
+			cost.getRow(i, 0, rowCost, 0, n);
+			for (int j = 0; j < n; j++) {
+				int newCost = search.getCostTo(j);
+				if (newCost != rowCost[j]) {
+					rowCost[j] = newCost;
+					changed++;
+				}
+				rowPrevious[j] = (j == i || newCost == INF) ? 0 : search.getPreviousCity(j);
+			}
+			cost.setRow(i, 0, rowCost, 0, n);
+			previous.setRow(i, 0, rowPrevious, 0, n);
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,122 @@
+package application;
+
+import java.util.Arrays;
+
+/*
+  Indexed binary min-heap of int ids (0 .. capacity-1) keyed by int priorities.
+  Works on primitive arrays only, so inserting, decreasing a key and polling
+  never box or allocate.
+ */
+public class IntBinaryHeap {
+
+	private final int[] heap; // heap[slot] = id
+	private final int[] keys; // keys[id] = priority
+	private final int[] slots; // slots[id] = position in heap, -1 if absent
+	private int size;
+
+	// Creates an empty heap for ids in [0, capacity)
+	public IntBinaryHeap(int capacity) {
+		heap = new int[capacity];
+		keys = new int[capacity];
+		slots = new int[capacity];
+		Arrays.fill(slots, -1);
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// Returns true if the id is currently queued
+	public boolean contains(int id) {
+		return slots[id] != -1;
+	}
+
+	// Returns the key of a queued id
+	public int keyOf(int id) {
+		return keys[id];
+	}
+
+	// Removes every queued id, in time proportional to the current size
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			slots[heap[i]] = -1;
+		size = 0;
+	}
+
+	// Inserts the id, or lowers its key if it is already queued with a larger one.
+	// Returns false if the id was queued with a key that is not larger.
+	public boolean insertOrDecrease(int id, int key) {
+		int slot = slots[id];
+		if (slot == -1) {
+			slot = size++;
+			heap[slot] = id;
+			slots[id] = slot;
+		} else if (key >= keys[id]) {
+			return false;
+		}
+		keys[id] = key;
+		siftUp(slot);
+		return true;
+	}
+
+	// Returns the id with the smallest key without removing it
+	public int peek() {
+		return heap[0];
+	}
+
+	// Removes and returns the id with the smallest key
+	public int poll() {
+		int top = heap[0];
+		slots[top] = -1;
+		size--;
+		if (size > 0) {
+			int last = heap[size];
+			heap[0] = last;
+			slots[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int slot) {
+		int id = heap[slot];
+		int key = keys[id];
+		while (slot > 0) {
+			int parentSlot = (slot - 1) >>> 1;
+			int parent = heap[parentSlot];
+			if (keys[parent] <= key)
+				break;
+			heap[slot] = parent;
+			slots[parent] = slot;
+			slot = parentSlot;
+		}
+		heap[slot] = id;
+		slots[id] = slot;
+	}
+
+	private void siftDown(int slot) {
+		int id = heap[slot];
+		int key = keys[id];
+		int half = size >>> 1;
+		while (slot < half) {
+			int childSlot = 2 * slot + 1;
+			int child = heap[childSlot];
+			int right = childSlot + 1;
+			if (right < size && keys[heap[right]] < keys[child]) {
+				childSlot = right;
+				child = heap[right];
+			}
+			if (key <= keys[child])
+				break;
+			heap[slot] = child;
+			slots[child] = slot;
+			slot = childSlot;
+		}
+		heap[slot] = id;
+		slots[id] = slot;
+	}
+}
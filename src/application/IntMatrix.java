@@ -0,0 +1,291 @@
+package application;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/*
+  Square N x N matrix of ints stored off-heap, for the DP cost and
+  previous-city tables.
+
+  Cells are row-major: (i, j) is flat index i * N + j. The memory is a list
+  of direct (or memory-mapped) buffers, each holding a power-of-two number of
+  whole rows and at most 1 GB, so a matrix can grow past the 2 GB limit of a
+  single buffer and a cell is found with a shift and a mask. Nothing but a
+  few small buffer objects lives on the Java heap, whatever N is.
+
+  A cell takes 4 bytes, or 2 bytes when every value is known to stay below
+  0xFFFF (city ids of graphs under 65536 cities, costs of small graphs). In
+  2-byte cells values are unsigned and 0xFFFF stands for Integer.MAX_VALUE,
+  the INF marker of the solvers, so callers always see plain ints. Storing a
+  value that does not fit throws instead of silently wrapping.
+
+  close() releases the memory immediately instead of waiting for the buffers
+  to be garbage collected; the matrix must not be used afterwards.
+ */
+public final class IntMatrix implements AutoCloseable {
+
+	private static final long MAX_CHUNK_BYTES = 1L << 30;
+	private static final int INF = Integer.MAX_VALUE;
+	private static final int NARROW_INF = 0xFFFF; // INF in 2-byte cells
+	private static final int NARROW_MAX = NARROW_INF - 1; // Largest finite 2-byte value
+
+	private final int n;
+	private final int cellBytes; // 2 or 4
+	private final int rowShift; // log2 of the rows held by one chunk
+	private final int rowMask;
+	private ByteBuffer[] chunks; // null once closed
+	private IntBuffer[] cells; // int views of the chunks (4-byte cells)
+	private ShortBuffer[] narrowCells; // short views of the chunks (2-byte cells)
+
+	// Allocates a zero-filled N x N matrix of 4-byte cells
+	public IntMatrix(int n) {
+		this(n, Integer.BYTES);
+	}
+
+	// Allocates a zero-filled N x N matrix with 2- or 4-byte cells
+	public IntMatrix(int n, int cellBytes) {
+		this(n, cellBytes, new ByteBuffer[chunkCount(n, cellBytes)]);
+		for (int c = 0; c < chunks.length; c++)
+			setChunk(c, ByteBuffer.allocateDirect((int) chunkBytes(n, cellBytes, c)));
+	}
+
+	// Allocates a matrix with the narrowest cells able to hold every value in
+	// 0 .. maxValue (plus INF)
+	public static IntMatrix forValuesUpTo(int n, long maxValue) {
+		return new IntMatrix(n, maxValue <= NARROW_MAX ? Short.BYTES : Integer.BYTES);
+	}
+
+	// Maps an N x N matrix stored row-major (little-endian) at the given file
+	// position. Writes go to private copies of the pages and never reach the
+	// file; the channel must be open for reading and writing.
+	public static IntMatrix map(FileChannel channel, long position, int n, int cellBytes) throws IOException {
+		IntMatrix matrix = new IntMatrix(n, cellBytes, new ByteBuffer[chunkCount(n, cellBytes)]);
+		try {
+			for (int c = 0; c < matrix.chunks.length; c++) {
+				long bytes = chunkBytes(n, cellBytes, c);
+				matrix.setChunk(c, channel.map(FileChannel.MapMode.PRIVATE, position, bytes));
+				position += bytes;
+			}
+		} catch (IOException e) {
+			matrix.close();
+			throw e;
+		}
+		return matrix;
+	}
+
+	private IntMatrix(int n, int cellBytes, ByteBuffer[] chunks) {
+		this.n = n;
+		this.cellBytes = cellBytes;
+		this.rowShift = rowShift(n, cellBytes);
+		this.rowMask = (1 << rowShift) - 1;
+		this.chunks = chunks;
+		if (cellBytes == Integer.BYTES)
+			cells = new IntBuffer[chunks.length];
+		else
+			narrowCells = new ShortBuffer[chunks.length];
+	}
+
+	private void setChunk(int c, ByteBuffer chunk) {
+		chunks[c] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+		if (cells != null)
+			cells[c] = chunks[c].asIntBuffer();
+		else
+			narrowCells[c] = chunks[c].asShortBuffer();
+	}
+
+	// Rows per chunk: the largest power of two whose rows fit in MAX_CHUNK_BYTES
+	private static int rowShift(int n, int cellBytes) {
+		long rowBytes = Math.max(1L, (long) n * cellBytes);
+		return 63 - Long.numberOfLeadingZeros(Math.max(1L, MAX_CHUNK_BYTES / rowBytes));
+	}
+
+	private static int chunkCount(int n, int cellBytes) {
+		if (n < 0)
+			throw new IllegalArgumentException("Negative matrix size: " + n);
+		if (cellBytes != Short.BYTES && cellBytes != Integer.BYTES)
+			throw new IllegalArgumentException("Cells must be 2 or 4 bytes: " + cellBytes);
+		int shift = rowShift(n, cellBytes);
+		return (int) (((long) n + (1 << shift) - 1) >>> shift);
+	}
+
+	private static long chunkBytes(int n, int cellBytes, int c) {
+		int rowsPerChunk = 1 << rowShift(n, cellBytes);
+		return (long) Math.min(rowsPerChunk, n - c * rowsPerChunk) * n * cellBytes;
+	}
+
+	// Number of rows (and columns)
+	public int size() {
+		return n;
+	}
+
+	// Bytes per cell: 2 or 4
+	public int getCellBytes() {
+		return cellBytes;
+	}
+
+	// Largest value other than INF that a cell can hold
+	public int getMaxValue() {
+		return cellBytes == Integer.BYTES ? INF - 1 : NARROW_MAX;
+	}
+
+	public int get(int i, int j) {
+		int index = (i & rowMask) * n + j;
+		if (cells != null)
+			return cells[i >>> rowShift].get(index);
+		return widen(narrowCells[i >>> rowShift].get(index));
+	}
+
+	public void set(int i, int j, int value) {
+		int index = (i & rowMask) * n + j;
+		if (cells != null)
+			cells[i >>> rowShift].put(index, value);
+		else
+			narrowCells[i >>> rowShift].put(index, narrow(value));
+	}
+
+	// Sets every cell to the same value
+	public void fill(int value) {
+		int[] row = new int[n];
+		Arrays.fill(row, value);
+		for (int i = 0; i < n; i++)
+			setRow(i, 0, row, 0, n);
+	}
+
+	// Copies cells (i, j) .. (i, j + length - 1) into dst starting at offset
+	public void getRow(int i, int j, int[] dst, int offset, int length) {
+		int index = (i & rowMask) * n + j;
+		if (cells != null) {
+			cells[i >>> rowShift].get(index, dst, offset, length);
+			return;
+		}
+		ShortBuffer chunk = narrowCells[i >>> rowShift];
+		for (int k = 0; k < length; k++)
+			dst[offset + k] = widen(chunk.get(index + k));
+	}
+
+	// Copies length values from src starting at offset into cells (i, j) ..
+	public void setRow(int i, int j, int[] src, int offset, int length) {
+		int index = (i & rowMask) * n + j;
+		if (cells != null) {
+			cells[i >>> rowShift].put(index, src, offset, length);
+			return;
+		}
+		ShortBuffer chunk = narrowCells[i >>> rowShift];
+		for (int k = 0; k < length; k++)
+			chunk.put(index + k, narrow(src[offset + k]));
+	}
+
+	// Returns a new off-heap matrix with the same cell width and values
+	public IntMatrix copy() {
+		IntMatrix copy = new IntMatrix(n, cellBytes);
+		for (int c = 0; c < chunks.length; c++)
+			copy.chunks[c].duplicate().clear().put(chunks[c].duplicate().clear());
+		return copy;
+	}
+
+	// Returns true if both matrices have the same size and values, whatever
+	// their cell widths
+	public boolean contentEquals(IntMatrix other) {
+		if (other.n != n)
+			return false;
+		if (other.cellBytes == cellBytes) {
+			for (int c = 0; c < chunks.length; c++) {
+				if (chunks[c].duplicate().clear().mismatch(other.chunks[c].duplicate().clear()) != -1)
+					return false;
+			}
+			return true;
+		}
+		int[] row = new int[n];
+		int[] otherRow = new int[n];
+		for (int i = 0; i < n; i++) {
+			getRow(i, 0, row, 0, n);
+			other.getRow(i, 0, otherRow, 0, n);
+			if (!Arrays.equals(row, otherRow))
+				return false;
+		}
+		return true;
+	}
+
+	private static int widen(short cell) {
+		int value = Short.toUnsignedInt(cell);
+		return value == NARROW_INF ? INF : value;
+	}
+
+	private static short narrow(int value) {
+		if (value == INF)
+			return (short) NARROW_INF;
+		if (value < 0 || value > NARROW_MAX)
+			throw new ArithmeticException("Value " + value + " does not fit a 2-byte cell");
+		return (short) value;
+	}
+
+	// Writes every cell, row-major and little-endian, at the channel's position
+	public void writeTo(FileChannel channel) throws IOException {
+		for (ByteBuffer chunk : chunks) {
+			ByteBuffer bytes = chunk.duplicate();
+			bytes.clear();
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+		}
+	}
+
+	// Releases the off-heap memory. Safe to call more than once.
+	@Override
+	public void close() {
+		ByteBuffer[] released = chunks;
+		chunks = null;
+		cells = null;
+		narrowCells = null;
+		if (released == null)
+			return;
+		for (ByteBuffer chunk : released) {
+			if (chunk != null)
+				Cleaner.release(chunk);
+		}
+	}
+
+	/*
+	 * Frees a direct buffer's memory (or unmaps a mapped one) without waiting for
+	 * the GC, through sun.misc.Unsafe.invokeCleaner. If that is not available the
+	 * buffer is simply dropped and freed by the next collection.
+	 */
+	private static final class Cleaner {
+
+		private static final Object UNSAFE;
+		private static final Method INVOKE_CLEANER;
+
+		static {
+			Object unsafe = null;
+			Method invokeCleaner = null;
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				unsafe = field.get(null);
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				unsafe = null;
+				invokeCleaner = null;
+			}
+			UNSAFE = unsafe;
+			INVOKE_CLEANER = invokeCleaner;
+		}
+
+		static void release(ByteBuffer buffer) {
+			if (INVOKE_CLEANER == null)
+				return;
+			try {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Left to the garbage collector
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/*
+  Lazily enumerates loopless routes between two cities in order of increasing
+  cost (Yen's algorithm) over the int ids of a CityGraph.
+
+  Each call to next() does only the work needed for one more route: the spur
+  searches around the previously returned route are run on demand and their
+  results wait in a candidate queue. Asking for the top K routes therefore
+  costs K rounds of single-source searches, instead of listing every simple
+  path in the network first.
+ */
+public class KShortestPaths implements Iterator<TravelPath> {
+
+	private final CityGraph graph;
+	private final int source;
+	private final int target;
+	private final SingleSourceDijkstra search;
+	private final boolean[] blockedCities;
+	private final boolean[] blockedEdges;
+	private final int[] blockedEdgeList; // Edges to unblock after a spur search
+
+	private final List<int[]> found = new ArrayList<>(); // Routes already returned, in order
+	private final PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+	private final Set<Candidate> seen = new HashSet<>(); // Every route ever queued, to avoid duplicates
+	private int spurred; // Number of found routes whose spur searches have run
+	private boolean exhausted;
+
+	public KShortestPaths(CityGraph graph, int source, int target) {
+		this.graph = graph;
+		this.source = source;
+		this.target = target;
+		this.search = new SingleSourceDijkstra(graph);
+		this.blockedCities = new boolean[graph.getCityCount()];
+		this.blockedEdges = new boolean[graph.getConnectionCount()];
+		this.blockedEdgeList = new int[graph.getConnectionCount()];
+	}
+
+	// True if another route exists; may run the spur searches for it
+	@Override
+	public boolean hasNext() {
+		if (exhausted)
+			return false;
+		if (found.isEmpty() && candidates.isEmpty()) {
+			addShortestPath();
+		}
+		while (spurred < found.size()) {
+			addSpurPaths(found.get(spurred++));
+		}
+		exhausted = candidates.isEmpty();
+		return !exhausted;
+	}
+
+	// Returns the next cheapest route
+	@Override
+	public TravelPath next() {
+		if (!hasNext())
+			throw new NoSuchElementException("No more routes");
+		Candidate best = candidates.poll();
+		found.add(best.cities);
+		return new TravelPath(graph, best.cities, best.cost);
+	}
+
+	// Returns up to count more routes
+	public List<TravelPath> next(int count) {
+		List<TravelPath> routes = new ArrayList<>();
+		while (routes.size() < count && hasNext())
+			routes.add(next());
+		return routes;
+	}
+
+	// Number of routes returned so far
+	public int getReturnedCount() {
+		return found.size();
+	}
+
+	private void addShortestPath() {
+		search.run(source, target);
+		if (search.getCostTo(target) != SingleSourceDijkstra.INF)
+			offer(new Candidate(extractPath(new int[0], 0), search.getCostTo(target)));
+	}
+
+	// Yen's step: for every city of the last route, branch off it while
+	// avoiding the connections already used by earlier routes with the same
+	// prefix and every city before the branching point
+	private void addSpurPaths(int[] last) {
+		int rootCost = 0;
+		for (int i = 0; i < last.length - 1; i++) {
+			int spur = last[i];
+
+			int blockedCount = 0;
+			for (int[] route : found) {
+				if (route.length > i + 1 && Arrays.equals(route, 0, i + 1, last, 0, i + 1)) {
+					int next = route[i + 1];
+					for (int e = graph.firstEdge(spur); e < graph.endEdge(spur); e++) {
+						if (graph.getTarget(e) == next && !blockedEdges[e]) {
+							blockedEdges[e] = true;
+							blockedEdgeList[blockedCount++] = e;
+						}
+					}
+				}
+			}
+			for (int j = 0; j < i; j++)
+				blockedCities[last[j]] = true;
+
+			search.run(spur, target, blockedCities, blockedEdges);
+			int spurCost = search.getCostTo(target);
+			if (spurCost != SingleSourceDijkstra.INF)
+				offer(new Candidate(extractPath(last, i), rootCost + spurCost));
+
+			for (int b = 0; b < blockedCount; b++)
+				blockedEdges[blockedEdgeList[b]] = false;
+			for (int j = 0; j < i; j++)
+				blockedCities[last[j]] = false;
+
+			rootCost += graph.getCheapestCost(spur, last[i + 1]);
+		}
+	}
+
+	// Joins root[0 .. rootLength) with the path found by the last search
+	private int[] extractPath(int[] root, int rootLength) {
+		int hops = 0;
+		for (int city = target; city != search.getSource(); city = search.getPreviousCity(city))
+			hops++;
+		int[] path = Arrays.copyOf(root, rootLength + hops + 1);
+		for (int city = target, i = path.length - 1; i >= rootLength; city = search.getPreviousCity(city), i--)
+			path[i] = city;
+		return path;
+	}
+
+	private void offer(Candidate candidate) {
+		if (seen.add(candidate))
+			candidates.add(candidate);
+	}
+
+	/*
+	 * A route waiting in the candidate queue. Ordered by cost, then by city ids
+	 * so that equal-cost routes always come out in the same order.
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+
+		private final int[] cities;
+		private final int cost;
+
+		Candidate(int[] cities, int cost) {
+			this.cities = cities;
+			this.cost = cost;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			int order = Integer.compare(cost, other.cost);
+			return order != 0 ? order : Arrays.compare(cities, other.cities);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Candidate && Arrays.equals(cities, ((Candidate) other).cities);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(cities);
+		}
+	}
+}
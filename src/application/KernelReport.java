@@ -0,0 +1,54 @@
+package application;
+
+/*
+  Command-line report comparing the scalar and vector relaxation kernels of
+  the serial blocked engine on generated graphs.
+
+  Usage: java --add-modules jdk.incubator.vector -XX:MaxDirectMemorySize=4g
+             application.KernelReport [sizes...]
+  Defaults to 500 1000 2000 4000 cities. Each size is solved once to warm up
+  and then timed with each kernel; the vector result is checked against the
+  scalar result bit for bit.
+ */
+public class KernelReport {
+
+	private static final int AVG_DEGREE = 8;
+	private static final int MAX_COST = 100;
+
+	public static void main(String[] args) {
+		if (!DpKernel.VECTOR.isAvailable()) {
+			System.out.println("Vector kernel not available: run with --add-modules jdk.incubator.vector");
+			return;
+		}
+		int[] sizes = { 500, 1000, 2000, 4000 };
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%8s %14s %14s %9s %10s%n", "cities", "scalar (ms)", "vector (ms)", "speedup", "identical");
+		for (int n : sizes) {
+			CityGraph graph = CityGraph.fromCities(GraphGenerator.random(n, AVG_DEGREE, MAX_COST, n));
+			try (IntMatrix scalarCost = new IntMatrix(n); IntMatrix scalarPrev = new IntMatrix(n);
+					IntMatrix vectorCost = new IntMatrix(n); IntMatrix vectorPrev = new IntMatrix(n)) {
+				time(DpKernel.SCALAR, graph, scalarCost, scalarPrev); // Warm-up
+				time(DpKernel.VECTOR, graph, vectorCost, vectorPrev);
+				long scalarNanos = time(DpKernel.SCALAR, graph, scalarCost, scalarPrev);
+				long vectorNanos = time(DpKernel.VECTOR, graph, vectorCost, vectorPrev);
+				boolean identical = vectorCost.contentEquals(scalarCost) && vectorPrev.contentEquals(scalarPrev);
+				System.out.printf("%8d %14.1f %14.1f %9.2f %10s%n", n, scalarNanos / 1e6, vectorNanos / 1e6,
+						(double) scalarNanos / vectorNanos, identical ? "yes" : "NO");
+			}
+		}
+	}
+
+	// Solves the graph's tables with the given kernel and returns the time taken
+	private static long time(DpKernel kernel, CityGraph graph, IntMatrix cost, IntMatrix prev) {
+		BlockedFloydWarshall.setKernel(kernel);
+		graph.fillDirectCostTable(cost, prev);
+		long start = System.nanoTime();
+		BlockedFloydWarshall.solve(cost, prev);
+		return System.nanoTime() - start;
+	}
+}
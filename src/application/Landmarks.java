@@ -0,0 +1,187 @@
+package application;
+
+import java.util.Arrays;
+
+/*
+  Landmark distances for goal-directed (ALT) search: A* with lower bounds
+  from landmarks and the triangle inequality.
+
+  For every landmark L the minimum total cost from L to each city and from
+  each city to L is computed once, with one forward and one backward
+  Dijkstra run. For any city v and target t,
+      d(v, t) >= d(L, t) - d(L, v)   and   d(v, t) >= d(v, L) - d(t, L),
+  so the largest of these differences is a lower bound on the remaining
+  cost that never overestimates and is consistent along every connection.
+
+  Landmarks are chosen far apart (farthest-point selection): each new one
+  is the city whose nearest chosen landmark, by cost in both directions, is
+  farthest away, which places them on the edge of the network where they
+  give the tightest bounds. Distances are stored city-major (all landmarks
+  of one city side by side) so one estimate reads two short runs of memory.
+ */
+public final class Landmarks {
+
+	public static final int INF = Integer.MAX_VALUE;
+
+	private final int cityCount;
+	private final int[] landmarks;
+	private final int[] fromLandmark; // [city * count + l] = d(landmark l, city)
+	private final int[] toLandmark; // [city * count + l] = d(city, landmark l)
+
+	Landmarks(int cityCount, int[] landmarks, int[] fromLandmark, int[] toLandmark) {
+		this.cityCount = cityCount;
+		this.landmarks = landmarks;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+	}
+
+	// Picks up to count landmarks far apart from each other and computes their
+	// distances (2 * count Dijkstra runs over the whole graph)
+	public static Landmarks select(CityGraph graph, int count) {
+		int n = graph.getCityCount();
+		count = Math.min(count, n);
+		int[] chosen = new int[count];
+		int[] fromLandmark = new int[n * count];
+		int[] toLandmark = new int[n * count];
+		int[] forward = new int[n];
+		int[] backward = new int[n];
+		long[] nearest = new long[n]; // Distance from each city to its closest landmark so far
+		Arrays.fill(nearest, Long.MAX_VALUE);
+		IntBinaryHeap queue = new IntBinaryHeap(n);
+
+		// Start from the city farthest from city 0, a cheap stand-in for a
+		// point on the edge of the network
+		int next = 0;
+		if (n > 0) {
+			distances(graph.offsets(), graph.targets(), null, graph.totalCosts(), 0, forward, queue);
+			next = farthest(forward, null);
+		}
+		for (int l = 0; l < count; l++) {
+			chosen[l] = next;
+			measure(graph, next, l, count, forward, backward, fromLandmark, toLandmark, queue);
+			for (int city = 0; city < n; city++) {
+				// Cities cut off from a landmark in either direction are never picked
+				if (forward[city] != INF && backward[city] != INF)
+					nearest[city] = Math.min(nearest[city], (long) forward[city] + backward[city]);
+			}
+			next = farthest(null, nearest);
+		}
+		return new Landmarks(n, chosen, fromLandmark, toLandmark);
+	}
+
+	// Returns landmarks on the same cities with distances measured on another
+	// version of the graph (same cities, changed connection costs)
+	public Landmarks forGraph(CityGraph graph) {
+		int n = graph.getCityCount();
+		int count = landmarks.length;
+		int[] fromLandmark = new int[n * count];
+		int[] toLandmark = new int[n * count];
+		int[] forward = new int[n];
+		int[] backward = new int[n];
+		IntBinaryHeap queue = new IntBinaryHeap(n);
+		for (int l = 0; l < count; l++)
+			measure(graph, landmarks[l], l, count, forward, backward, fromLandmark, toLandmark, queue);
+		return new Landmarks(n, landmarks, fromLandmark, toLandmark);
+	}
+
+	// Computes the distances from and to one landmark into column l
+	private static void measure(CityGraph graph, int landmark, int l, int count, int[] forward, int[] backward,
+			int[] fromLandmark, int[] toLandmark, IntBinaryHeap queue) {
+		distances(graph.offsets(), graph.targets(), null, graph.totalCosts(), landmark, forward, queue);
+		distances(graph.reverseOffsets(), graph.reverseSources(), graph.reverseEdges(), graph.totalCosts(), landmark,
+				backward, queue);
+		for (int city = 0; city < forward.length; city++) {
+			fromLandmark[city * count + l] = forward[city];
+			toLandmark[city * count + l] = backward[city];
+		}
+	}
+
+	// Minimum cost from source to every city over one CSR direction; weights
+	// are indexed through edgeIds when given (reverse graph)
+	private static void distances(int[] offsets, int[] neighbours, int[] edgeIds, int[] weights, int source,
+			int[] cost, IntBinaryHeap queue) {
+		Arrays.fill(cost, INF);
+		queue.clear();
+		cost[source] = 0;
+		queue.insertOrDecrease(source, 0);
+		while (!queue.isEmpty()) {
+			int city = queue.poll();
+			int cityCost = cost[city];
+			for (int e = offsets[city]; e < offsets[city + 1]; e++) {
+				int next = neighbours[e];
+				int newCost = cityCost + weights[edgeIds == null ? e : edgeIds[e]];
+				if (newCost < cost[next]) {
+					cost[next] = newCost;
+					queue.insertOrDecrease(next, newCost);
+				}
+			}
+		}
+	}
+
+	// City with the largest finite distance, or the largest nearest-landmark
+	// distance when nearest is given
+	private static int farthest(int[] cost, long[] nearest) {
+		int best = 0;
+		long bestDistance = -1;
+		int n = cost != null ? cost.length : nearest.length;
+		for (int city = 0; city < n; city++) {
+			long distance = cost != null ? cost[city] : nearest[city];
+			if (distance != INF && distance != Long.MAX_VALUE && distance > bestDistance) {
+				best = city;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	// Lower bound on the minimum cost from city to target, or INF if city
+	// provably cannot reach target
+	public int estimate(int city, int target) {
+		int count = landmarks.length;
+		int cityBase = city * count;
+		int targetBase = target * count;
+		int best = 0;
+		for (int l = 0; l < count; l++) {
+			int landmarkToTarget = fromLandmark[targetBase + l];
+			int landmarkToCity = fromLandmark[cityBase + l];
+			if (landmarkToTarget != INF && landmarkToCity != INF)
+				best = Math.max(best, landmarkToTarget - landmarkToCity);
+
+			int targetToLandmark = toLandmark[targetBase + l];
+			if (targetToLandmark != INF) {
+				int cityToLandmark = toLandmark[cityBase + l];
+				if (cityToLandmark == INF)
+					return INF; // target reaches L but city does not, so city cannot reach target
+				best = Math.max(best, cityToLandmark - targetToLandmark);
+			}
+		}
+		return best;
+	}
+
+	// Number of landmarks
+	public int getCount() {
+		return landmarks.length;
+	}
+
+	// City id of landmark l
+	public int getLandmark(int l) {
+		return landmarks[l];
+	}
+
+	public int getCityCount() {
+		return cityCount;
+	}
+
+	// Raw arrays for snapshots; callers must not modify them
+	int[] landmarks() {
+		return landmarks;
+	}
+
+	int[] fromLandmark() {
+		return fromLandmark;
+	}
+
+	int[] toLandmark() {
+		return toLandmark;
+	}
+}
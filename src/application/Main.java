@@ -1,10 +1,11 @@
 package application;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javafx.animation.Animation;
 import javafx.animation.ScaleTransition;
@@ -14,7 +15,6 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextArea;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
@@ -33,19 +33,61 @@ import javafx.util.Duration;
 public class Main extends Application {
 
 	private static String inputFilePath = "/Users/saberkhateeb/Documents/input.txt";
-	private static City[] cityList; // All cities loaded from file
-	private static int cityCount; // Number of cities
-	private static int[][] costTable; // DP table for min cost
-	private static int[][] previousCity; // Path tracking matrix
-	private static String startCity; // Start point
-	private static String endCity; // End point
+	// Solved graph and DP tables shown by the UI; replaced by one atomic swap on
+	// updates and reloads, so each view reads one network from start to end
+	private static final AtomicReference<SolvedNetwork> currentNetwork = new AtomicReference<>();
+	private static DpMode dpMode = DpMode.BLOCKED; // Engine used by loadNetwork()
+	private static final int ALTERNATIVES_PAGE_SIZE = 20; // Routes listed per "Show More Routes" click
+	private static int dpThreads = Runtime.getRuntime().availableProcessors(); // Workers for DpMode.PARALLEL
+	private static boolean useSnapshot = true; // Reload from / save to the binary snapshot next to the input file
+	private static boolean narrowTables = true; // Use 2-byte DP table cells when the values fit
+	private static int landmarkCount = RoutingEngine.DEFAULT_LANDMARKS; // Landmarks used by DpMode.ALT
+	private static RouteCache routeCache = new RouteCache(10_000); // Answers to repeated route lookups
+	private static boolean watchInput = true; // Reload the network in the background when the input file changes
 
 	public static void main(String[] args) {
-		readDataFromFile(); // Reads city data from file
-		fillDpTable(); // Runs the DP algorithm
+		inputFilePath = System.getProperty("input.file", inputFilePath); // -Dinput.file=path/to/input.txt
+		dpMode = DpMode.fromName(System.getProperty("dp.mode", dpMode.name())); // -Ddp.mode=legacy to compare
+		dpThreads = Integer.getInteger("dp.threads", dpThreads);
+		String kernel = System.getProperty("dp.kernel"); // -Ddp.kernel=scalar to compare
+		if (kernel != null) {
+			setDpKernel(DpKernel.fromName(kernel));
+		}
+		useSnapshot = Boolean.parseBoolean(System.getProperty("dp.snapshot", "true")); // -Ddp.snapshot=false to always rebuild
+		narrowTables = Boolean.parseBoolean(System.getProperty("dp.narrow", "true")); // -Ddp.narrow=false for 4-byte cells
+		landmarkCount = Integer.getInteger("dp.landmarks", landmarkCount); // -Ddp.mode=alt -Ddp.landmarks=8
+		routeCache = new RouteCache(Integer.getInteger("route.cache", routeCache.getCapacity())); // -Droute.cache=routes kept
+		watchInput = Boolean.parseBoolean(System.getProperty("network.watch", "true")); // -Dnetwork.watch=false to load once
+		loadNetwork(); // Reads city data from the snapshot or file and runs the DP algorithm
+		if (watchInput) {
+			watchNetwork();
+		}
+		Integer port = Integer.getInteger("serve.port"); // -Dserve.port=8080 for the headless HTTP service
+		if (port != null) {
+			serve(port, Integer.getInteger("serve.threads", 4 * Runtime.getRuntime().availableProcessors()));
+			return;
+		}
 		launch(args);
 	}
 
+	// Answers route queries over HTTP instead of opening the window. Runs
+	// until the JVM is stopped.
+	private static void serve(int port, int threads) {
+		SolvedNetwork network = getNetwork();
+		if (network == null)
+			return;
+		RouteServer server = new RouteServer(Main::getNetwork, routeCache);
+		try {
+			server.start(port, threads);
+		} catch (IOException e) {
+			System.out.println("Could not start the route service on port " + port + ": " + e.getMessage());
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+		System.out.println("Serving " + network.getCityCount() + " cities on http://localhost:" + server.getPort()
+				+ "/route (" + (server.usesVirtualThreads() ? "virtual threads" : threads + " threads") + ")");
+	}
+
 	@Override
 	public void start(Stage primaryStage) {
 		primaryStage.setTitle("Explore Your Route");
@@ -123,184 +165,167 @@ public class Main extends Application {
 
 	}
 
-	// Reads city data, connections, and start/end cities from a file
-	public static void readDataFromFile() {
-		try {
-			// Open the input file using a Scanner
-			Scanner scanner = new Scanner(new File(inputFilePath));
-
-			// Read the first line: total number of cities
-			cityCount = Integer.parseInt(scanner.nextLine().trim());
-
-			// Read the second line: start and end city names
-			String[] startEnd = scanner.nextLine().trim().split(",");
-			startCity = startEnd[0].trim(); // Starting city
-			endCity = startEnd[1].trim(); // Ending city
-
-			// Create an array to store city objects
-			cityList = new City[cityCount];
-			int index = 0;
-
-			// Process each remaining line in the file (city and its connections)
-			while (scanner.hasNextLine()) {
-				String line = scanner.nextLine().trim();
-				if (line.isEmpty())
-					continue;
-
-				// Split the line into parts: city name and connections
-				String[] parts = line.split(", ");
-				String cityName = parts[0];
-				int connectionCount = parts.length - 1;
-
-				// Temporary arrays to hold connection details
-				String[] connectedNames = new String[connectionCount];
-				int[] petrolCosts = new int[connectionCount];
-				int[] hotelCosts = new int[connectionCount];
-
-				// Parse each connection: [Destination, PetrolCost, HotelCost]
-				for (int i = 1; i < parts.length; i++) {
-					String[] info = parts[i].replace("[", "").replace("]", "").split(",");
-					connectedNames[i - 1] = info[0].trim();
-					petrolCosts[i - 1] = Integer.parseInt(info[1].trim());
-					hotelCosts[i - 1] = Integer.parseInt(info[2].trim());
-				}
-
-				// Create Connection objects and assign them to the city
-				Connection[] connections = new Connection[connectionCount];
-				for (int i = 0; i < connectionCount; i++) {
-					connections[i] = new Connection(connectedNames[i], petrolCosts[i], hotelCosts[i]);
-				}
-
-				// Create the City object and store it in the list
-				cityList[index++] = new City(cityName, connections);
+	// Loads the network named by inputFilePath: from its snapshot if there is a
+	// usable one, otherwise by parsing and solving the input file and saving a
+	// new snapshot. Returns false if the input file could not be read.
+	public static boolean loadNetwork() {
+		RoutingEngine engine = new RoutingEngine(dpMode, dpThreads, narrowTables, landmarkCount);
+		Path input = Paths.get(inputFilePath);
+		SolvedNetwork loaded = null;
+		if (useSnapshot) {
+			try {
+				loaded = engine.readSnapshot(snapshotPath(), input);
+			} catch (NoSuchFileException e) {
+				// Reported below when the input file is read
+			} catch (IOException e) {
+				System.out.println("Ignoring snapshot " + snapshotPath() + ": " + e.getMessage());
 			}
-
-		} catch (FileNotFoundException e) {
-			System.out.println("File not found: " + inputFilePath);
 		}
-	}
-
-	public static void fillDpTable() {
-		final int INF = Integer.MAX_VALUE; // Represents infinity for unreachable paths
-
-		costTable = new int[cityCount][cityCount]; // Stores the minimum cost between cities
-		previousCity = new int[cityCount][cityCount]; // Stores the city used to reach a certain city (for path
-														// reconstruction)
-
-		// Step 1: Initialize the cost table
-		for (int i = 0; i < cityCount; i++) {
-			for (int j = 0; j < cityCount; j++) {
-				costTable[i][j] = (i == j) ? 0 : INF; // Cost to self is 0, others are initially INF
+		if (loaded == null) {
+			try {
+				loaded = engine.load(input);
+			} catch (NoSuchFileException e) {
+				System.out.println("File not found: " + inputFilePath);
+				return false;
+			} catch (IOException e) {
+				System.out.println("Could not read " + inputFilePath + ": " + e.getMessage());
+				return false;
 			}
-		}
-
-		// Step 2: Fill direct connection costs from the city data
-		for (int i = 0; i < cityCount; i++) {
-			City fromCity = cityList[i];
-			for (Connection conn : fromCity.getConnections()) {
-				int j = findCityIndex(conn.getDestination());
-				if (j != -1) {
-					costTable[i][j] = conn.getTotalCost(); // Petrol + Hotel
-					previousCity[i][j] = i; // Save from which city we came to reach j
+			if (useSnapshot) {
+				try {
+					engine.writeSnapshot(loaded, snapshotPath(), input);
+				} catch (IOException e) {
+					System.out.println("Could not write snapshot " + snapshotPath() + ": " + e.getMessage());
 				}
 			}
 		}
+		setNetwork(loaded);
+		return true;
+	}
 
-		// Step 3: Apply Floyd-Warshall algorithm for all-pairs shortest path
-		// Try to improve the cost from i to j via an intermediate city k
-		for (int i = 0; i < cityCount; i++) {
-			for (int j = 0; j < cityCount; j++) {
-				if (i != j) {
-					for (int k = 0; k < cityCount; k++) {
-						// If path i -> k and k -> j exists
-						if (k != i && k != j && costTable[i][k] != INF && costTable[k][j] != INF) {
-							int newCost = costTable[i][k] + costTable[k][j];
-							// Update cost if a cheaper path is found
-							if (newCost < costTable[i][j]) {
-								costTable[i][j] = newCost;
-								previousCity[i][j] = previousCity[k][j]; // Update the previous city on the new shortest
-																			// path
-							}
-						}
+	// Solves the input file again on a background thread whenever it changes
+	// and swaps the result in; views already open keep the network they
+	// were built from
+	private static void watchNetwork() {
+		if (getNetwork() == null)
+			return;
+		RoutingEngine engine = new RoutingEngine(dpMode, dpThreads, narrowTables, landmarkCount);
+		NetworkReloader reloader = new NetworkReloader(engine, Paths.get(inputFilePath),
+				useSnapshot ? snapshotPath() : null, currentNetwork, new NetworkReloader.Listener() {
+					@Override
+					public void reloaded(SolvedNetwork network, long nanos) {
+						System.out.printf("Reloaded %d cities from %s in %.1f ms%n", network.getCityCount(),
+								inputFilePath, nanos / 1e6);
 					}
-				}
-			}
+
+					@Override
+					public void failed(Path input, Exception error) {
+						System.out.println("Could not reload " + input + ", keeping the current network: "
+								+ error.getMessage());
+					}
+				});
+		try {
+			reloader.start();
+		} catch (IOException e) {
+			System.out.println("Not watching " + inputFilePath + " for changes: " + e.getMessage());
 		}
 	}
 
-	// Searches for a city by name in the cityList array and returns its index.
-	// Returns -1 if the city is not found (case-insensitive comparison).
-	public static int findCityIndex(String cityName) {
-		for (int i = 0; i < cityList.length; i++) {
-			if (cityList[i].getCityName().equalsIgnoreCase(cityName))
-				return i;
-		}
-		return -1;
+	// Path of the binary snapshot saved next to the input file
+	private static Path snapshotPath() {
+		return Paths.get(inputFilePath + ".snapshot");
 	}
 
-	// Returns the optimal path (as a string) from the start city to the end city.
-	// Uses the costTable and previousCity matrix generated by the Floyd-Warshall
-	// algorithm.
-	// If no path exists, returns a "No path exists" message.
-	public static String getOptimalPath(String start, String end) {
-		int startIdx = findCityIndex(start); // Get index of the start city
-		int endIdx = findCityIndex(end); // Get index of the end city
+	// Network shown by the UI
+	public static SolvedNetwork getNetwork() {
+		return currentNetwork.get();
+	}
+
+	// Replaces the network shown by the UI. The previous one is not closed, as
+	// other threads may still be reading it; its tables are freed by the GC.
+	public static void setNetwork(SolvedNetwork solved) {
+		currentNetwork.set(solved);
+	}
+
+	// Sets the file read by loadNetwork()
+	public static void setInputFilePath(String path) {
+		inputFilePath = path;
+	}
+
+	// Selects the engine used by loadNetwork()
+	public static void setDpMode(DpMode mode) {
+		dpMode = mode;
+	}
 
-		// If either city is invalid or there is no known path between them
-		if (startIdx == -1 || endIdx == -1 || costTable[startIdx][endIdx] == Integer.MAX_VALUE) {
-			return "No path exists";
+	// Selects the relaxation kernel of the blocked engines; the vector kernel
+	// needs --add-modules jdk.incubator.vector and falls back to scalar without it
+	public static void setDpKernel(DpKernel kernel) {
+		BlockedFloydWarshall.setKernel(kernel);
+		if (BlockedFloydWarshall.getKernel() != kernel) {
+			System.out.println(kernel + " kernel not available, using " + BlockedFloydWarshall.getKernel());
 		}
+	}
 
-		// Use a StringBuilder to construct the path step by step
-		StringBuilder pathBuilder = new StringBuilder();
-		buildPath(startIdx, endIdx, pathBuilder); // Recursively build the path
-		return pathBuilder.toString(); // Return the final path as a string
+	// Sets the number of worker threads used by DpMode.PARALLEL
+	public static void setDpThreads(int threads) {
+		dpThreads = threads;
 	}
 
-	// Recursive helper method that reconstructs the path from start to end
-	// using the previousCity matrix that stores the best path decisions
-	private static void buildPath(int start, int end, StringBuilder pathBuilder) {
-		if (start == end) {
-			pathBuilder.append(cityList[start].getCityName()); // Base case: start of path
-		} else {
-			// Recursively go back through the path to build the correct order
+	// Searches for a city by name and returns its index in the graph.
+	// Returns -1 if the city is not found (case-insensitive comparison).
+	public static int findCityIndex(String cityName) {
+		return getNetwork().indexOf(cityName);
+	}
 
-			buildPath(start, previousCity[start][end], pathBuilder);
-			pathBuilder.append(" -> ").append(cityList[end].getCityName());
+	// Returns the optimal path (as a string) from the start city to the end city,
+	// or a "No path exists" message. Repeated lookups come from the route cache.
+	public static String getOptimalPath(String start, String end) {
+		return routeCache.getOptimalPath(getNetwork(), start, end);
+	}
 
-		}
+	// Cache in front of the route lookups of the UI
+	public static RouteCache getRouteCache() {
+		return routeCache;
 	}
 
 	// Prints the dynamic programming cost table along with the path information
 	// (previous cities)
 	public static void printDpTableWithPath() {
+		SolvedNetwork network = getNetwork();
 		System.out.println("\nDynamic Programming Table with Path Info:\n");
+		if (!network.hasTables()) {
+			System.out.println("Not available: no table is built in " + network.getMode() + " mode.");
+			return;
+		}
 
+		CityGraph graph = network.getGraph();
+		int cityCount = network.getCityCount();
 		int colWidth = 12; // Width for formatting each column when printing
 
 		// Print the header row (column city names)
 		System.out.printf("%" + colWidth + "s", ""); // empty cell top-left
 		for (int i = 0; i < cityCount; i++) {
-			System.out.printf("%" + colWidth + "s", cityList[i].getCityName());
+			System.out.printf("%" + colWidth + "s", graph.getCityName(i));
 		}
 		System.out.println();
 
 		// Print each row of the cost table
 		for (int i = 0; i < cityCount; i++) {
 			// First column in each row (row city name)
-			System.out.printf("%" + colWidth + "s", cityList[i].getCityName());
+			System.out.printf("%" + colWidth + "s", graph.getCityName(i));
 
 			for (int j = 0; j < cityCount; j++) {
 				String cell;
 
 				// If no path exists, display INF
-				if (costTable[i][j] == Integer.MAX_VALUE) {
+				int cellCost = network.getCost(i, j);
+				if (cellCost == SolvedNetwork.INF) {
 					cell = String.format("%s (%s)", "INF", "–");
 				} else {
 					// Determine the previous city name that leads to this cell
-					String from = (i == j || previousCity[i][j] == 0) ? "–"
-							: cityList[previousCity[i][j]].getCityName();
-					cell = String.format("%d (%s)", costTable[i][j], from);
+					int previous = network.getPreviousCity(i, j);
+					String from = (i == j || previous == 0) ? "–" : graph.getCityName(previous);
+					cell = String.format("%d (%s)", cellCost, from);
 				}
 
 				// Print the cell with proper spacing
@@ -314,8 +339,11 @@ public class Main extends Application {
 	// cost
 	public VBox buildOptimalPathCard() {
 		// Find the indices of the start and end cities
-		int startIndex = findCityIndex(startCity);
-		int endIndex = findCityIndex(endCity);
+		SolvedNetwork network = getNetwork();
+		String startCity = network.getStartCity();
+		String endCity = network.getEndCity();
+		int startIndex = network.indexOf(startCity);
+		int endIndex = network.indexOf(endCity);
 
 		// If start or end city doesn't exist, show error message
 		if (startIndex == -1 || endIndex == -1) {
@@ -330,7 +358,7 @@ public class Main extends Application {
 		title.setFont(Font.font("Georgia", FontWeight.EXTRA_BOLD, 36));
 
 		// Get the optimal path string using the DP algorithm
-		String pathText = getOptimalPath(startCity, endCity);
+		String pathText = routeCache.getOptimalPath(network, startCity, endCity);
 		Label pathLabel = new Label("Path: " + pathText);
 		pathLabel.setWrapText(true);
 		pathLabel.setStyle("-fx-text-fill: #1f1f1f; -fx-font-size: 22px; -fx-font-weight: bold;");
@@ -342,7 +370,7 @@ public class Main extends Application {
 		moneyIcon.setFitHeight(20);
 
 		// Create a label showing the total cost of the path
-		Label costText = new Label("Cost: " + costTable[startIndex][endIndex]);
+		Label costText = new Label("Cost: " + routeCache.getCost(network, startIndex, endIndex));
 		costText.setStyle("-fx-text-fill: #b26a00; -fx-font-size: 20px; -fx-font-weight: bold;");
 
 		// Group the cost icon and label horizontally
@@ -378,72 +406,41 @@ public class Main extends Application {
 		resultStage.show();
 	}
 
-	// Recursively generates all possible paths from the currentCity to the endCity.
-	// For each valid path, it calculates the total cost and stores it as a
-	// TravelPath object.
-	// Returns an array of all complete paths with their corresponding costs.
-	public static TravelPath[] getAllPathsWithCost(String currentCity, String[] path) {
-		// Add current city to the path
-		String[] newPath = new String[path.length + 1];
-		for (int i = 0; i < path.length; i++) {
-			newPath[i] = path[i];
-		}
-		newPath[path.length] = currentCity;
-
-		// If we reached the destination, calculate cost and return this path
-		if (currentCity.equals(endCity)) {
-			int cost = calculatePathCost(newPath);
-			return new TravelPath[] { new TravelPath(String.join(" -> ", newPath), cost) };
-		}
-
-		TravelPath[] allPaths = new TravelPath[0];
-
-		// Search for the city object and explore its connections
-		for (City city : cityList) {
-			if (city.getCityName().equals(currentCity)) {
-				for (String adj : city.getConnectedCityNames()) {
-					if (!isCityInPath(adj, newPath)) {
-						// Recursive call to extend the path
-						TravelPath[] newPaths = getAllPathsWithCost(adj, newPath);
-						allPaths = concatenateTravelPathArrays(allPaths, newPaths);
-					}
-				}
-				break;
-			}
-		}
 
-		return allPaths;
+	// Applies new petrol and hotel costs to the connection from one city to
+	// another. The engine repairs a copy of the DP tables incrementally and the
+	// UI switches to the updated network, which is returned: getChangedCells()
+	// counts the cost table cells that changed (always 0 in the DIJKSTRA, ALT
+	// and CH modes, which keep no table), and wereTablesRebuilt() tells if route
+	// costs outgrew the table's 2-byte cells so the tables were solved again.
+	// The change lasts until the input file is reloaded.
+	public static SolvedNetwork updateConnectionCost(String from, String to, int petrolCost, int hotelCost) {
+		RoutingEngine engine = new RoutingEngine(dpMode, dpThreads, narrowTables, landmarkCount);
+		// Retried on the newer network if a reload is published meanwhile
+		return currentNetwork
+				.updateAndGet(network -> engine.withConnectionCost(network, from, to, petrolCost, hotelCost));
 	}
 
-	// Checks if a given city already exists in the current path.
-	// This is used to avoid loops or revisiting the same city in a path.
-	private static boolean isCityInPath(String city, String[] path) {
-		for (String name : path) {
-			if (name.equals(city))
-				return true;
-		}
-		return false;
+	// Returns a generator of loopless routes from startCity to endCity that
+	// produces them one at a time, cheapest first (Yen's algorithm).
+	// Returns null if either city is unknown.
+	public static KShortestPaths getAlternativeRoutes() {
+		return getNetwork().getAlternativeRoutes();
 	}
 
-	// Calculates total cost of a given city path by summing the petrol and hotel
-	// costs
-	// for each segment in the path from one city to the next.
-	private static int calculatePathCost(String[] path) {
-		int cost = 0;
-		for (int i = 0; i < path.length - 1; i++) {
-			City current = cityList[findCityIndex(path[i])];
-			cost += current.getCostTo(path[i + 1]);
-		}
-		return cost;
+	// Returns the routes from startCity to endCity on which petrol and hotel
+	// costs trade off (no route is cheaper on both), by increasing petrol cost.
+	// Returns an empty list if either city is unknown.
+	public static List<TravelPath> getParetoRoutes() {
+		return getParetoRoutes(getNetwork());
 	}
 
-	// Combines two arrays of TravelPath objects into a single array.
-	// Used to collect all possible alternative paths in a single list.
-	private static TravelPath[] concatenateTravelPathArrays(TravelPath[] a, TravelPath[] b) {
-		TravelPath[] result = new TravelPath[a.length + b.length];
-		System.arraycopy(a, 0, result, 0, a.length);
-		System.arraycopy(b, 0, result, a.length, b.length);
-		return result;
+	private static List<TravelPath> getParetoRoutes(SolvedNetwork network) {
+		int start = network.indexOf(network.getStartCity());
+		int end = network.indexOf(network.getEndCity());
+		if (start == -1 || end == -1)
+			return List.of();
+		return network.getParetoRoutes(start, end, Integer.MAX_VALUE);
 	}
 
 	// Builds the full result layout in the JavaFX GUI.
@@ -452,23 +449,15 @@ public class Main extends Application {
 	public BorderPane buildResultsTabs() {
 		VBox optimalCard = buildOptimalPathCard();
 
-		// Generate all valid alternative paths and sort them by cost
-		TravelPath[] allRoutes = getAllPathsWithCost(startCity, new String[0]);
-		Arrays.sort(allRoutes, Comparator.comparingInt(TravelPath::getCost));
-
-		// Container to display alternative path cards
-		VBox altList = new VBox(15);
-		altList.setPadding(new Insets(10));
+		// Routes are searched for in the background, cheapest first, and
+		// listed as they are found
+		SolvedNetwork network = getNetwork();
 
 		Label altTitle = new Label("Alternative Paths");
 		altTitle.setFont(Font.font("Georgia", FontWeight.BOLD, 33));
 		altTitle.setStyle("-fx-text-fill: #4b2e1e;");
 
-		ScrollPane altScroll = new ScrollPane(altList);
-		altScroll.setPrefSize(950, 600);
-		altScroll.setStyle("-fx-background-color: transparent;");
-
-		VBox altContainer = new VBox(20, altTitle, altScroll);
+		VBox altContainer = new VBox(20, altTitle);
 		altContainer.setPadding(new Insets(30));
 		altContainer.setStyle("-fx-background-color: #fff9f0;" + "-fx-border-color: #d9ad7c;" + "-fx-border-radius: 12;"
 				+ "-fx-background-radius: 12;" + "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 6, 0.3, 1, 2);");
@@ -476,69 +465,14 @@ public class Main extends Application {
 
 		// StackPane to swap between views
 		StackPane contentPane = new StackPane();
-		for (int i = 0; i < allRoutes.length; i++) {
-			final int index = i;
-
-			VBox routeBox = new VBox(12);
-			routeBox.setPrefWidth(1200);
-			routeBox.setPadding(new Insets(20, 25, 20, 25));
-			routeBox.setStyle("-fx-background-color: #fff9f0; -fx-border-color: #d9ad7c; "
-					+ "-fx-border-radius: 12; -fx-background-radius: 12; -fx-effect: dropshadow(gaussian, "
-					+ "rgba(0,0,0,0.1), 6, 0.3, 1, 2);");
-
-			Label title = new Label("Path #" + (index + 1));
-			title.setFont(Font.font("Georgia", FontWeight.BOLD, 18));
-			title.setStyle("-fx-text-fill: #4b2e1e;");
-
-			String fullPath = allRoutes[index].getPath();
-
-			TextFlow pathFlow = new TextFlow();
-			pathFlow.setLineSpacing(4);
-			pathFlow.setPrefWidth(1000);
-
-			String[] parts = fullPath.split(" -> ");
-			for (int j = 0; j < parts.length; j++) {
-				Text cityText = new Text(parts[j]);
-				cityText.setFill(Color.web("#4b2e1e"));
-				cityText.setFont(Font.font("Segoe UI", FontWeight.BOLD, 15));
-				pathFlow.getChildren().add(cityText);
-				if (j < parts.length - 1) {
-					Text arrow = new Text(" -> ");
-					arrow.setFill(Color.GRAY);
-					arrow.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 15));
-					pathFlow.getChildren().add(arrow);
-				}
-			}
 
-			ImageView moneyIcon = new ImageView(new Image(getClass().getResource("/money.png").toExternalForm()));
-			moneyIcon.setFitWidth(18);
-			moneyIcon.setFitHeight(18);
-
-			Label costText = new Label("Cost: " + allRoutes[index].getCost());
-			costText.setStyle("-fx-text-fill: #b26a00; -fx-font-size: 14px; -fx-font-weight: bold;");
-			HBox costBox = new HBox(6, moneyIcon, costText);
-
-			Button visualize = new Button("Visualize on Map");
-			visualize.setStyle("-fx-background-color: #4b2e1e; -fx-text-fill: white; -fx-font-size: 13px;");
-			visualize.setOnAction(ev -> {
-				GraphVisualizer g = new GraphVisualizer(cityList, allRoutes[index].getPath());
-				Label graphTitle = new Label("Map View - Path #" + (index + 1));
-				graphTitle.setFont(Font.font("Georgia", FontWeight.BOLD, 24));
-				graphTitle.setStyle("-fx-text-fill: #4b2e1e;");
-				Button back = new Button("← Back to Alternatives");
-				back.setStyle(
-						"-fx-background-color: #fce8c3; -fx-text-fill: #4b2e1e; -fx-font-size: 14px; -fx-font-weight: bold; -fx-background-radius: 10; -fx-border-radius: 10;");
-				back.setOnAction(e2 -> contentPane.getChildren().setAll(altContainer));
-				VBox mapView = new VBox(20, back, graphTitle, g);
-				mapView.setPadding(new Insets(30));
-				mapView.setAlignment(Pos.TOP_LEFT);
-				mapView.setStyle("-fx-background-color: #f5f5f5;");
-				contentPane.getChildren().setAll(mapView);
-			});
-
-			routeBox.getChildren().addAll(title, pathFlow, costBox, visualize);
-			altList.getChildren().add(routeBox);
-		}
+		// Shows the first page of routes; "Show More Routes" searches for more
+		RouteListView altList = new RouteListView(network.getGraph(), network::getAlternativeRoutes,
+				ALTERNATIVES_PAGE_SIZE,
+				(route, index) -> showRouteOnMap(network, route, index, contentPane, altContainer));
+		altList.setPrefSize(950, 600);
+		VBox.setVgrow(altList, Priority.ALWAYS);
+		altContainer.getChildren().add(altList);
 
 		VBox sidebar = new VBox(18);
 		sidebar.setPadding(new Insets(20));
@@ -548,13 +482,14 @@ public class Main extends Application {
 		Button btn1 = new Button("Optimal Path");
 		Button btn2 = new Button("Alternatives");
 		Button btn3 = new Button("DP Table");
+		Button btn4 = new Button("Petrol vs Hotel");
 
-		for (Button btn : new Button[] { btn1, btn2, btn3 }) {
+		for (Button btn : new Button[] { btn1, btn2, btn3, btn4 }) {
 			btn.setMaxWidth(Double.MAX_VALUE);
 			btn.setStyle(
 					"-fx-background-color: #fce8c3; -fx-text-fill: #4b2e1e; -fx-font-size: 14px; -fx-font-weight: bold; -fx-background-radius: 10; -fx-border-radius: 10;");
 		}
-		sidebar.getChildren().addAll(btn1, btn2, btn3);
+		sidebar.getChildren().addAll(btn1, btn2, btn3, btn4);
 
 		VBox initialColumn = new VBox(20);
 		initialColumn.setPadding(new Insets(12, 30, 30, 0));
@@ -562,7 +497,7 @@ public class Main extends Application {
 		Label initialGraphTitle = new Label("Graphical View of the Optimal Journey");
 		initialGraphTitle.setFont(Font.font("Georgia", FontWeight.BOLD, 24));
 		initialGraphTitle.setStyle("-fx-text-fill: #4b2e1e;");
-		GraphVisualizer initialGraph = new GraphVisualizer(cityList, getOptimalPath(startCity, endCity));
+		GraphVisualizer initialGraph = buildOptimalPathGraph();
 		VBox initialGraphBox = new VBox(15, initialGraphTitle, initialGraph);
 		initialGraphBox.setPadding(new Insets(20));
 		initialGraphBox.setStyle("-fx-background-color: #fff9f0;"
@@ -578,7 +513,7 @@ public class Main extends Application {
 			Label graphTitle = new Label("Graphical View of the Optimal Journey");
 			graphTitle.setFont(Font.font("Georgia", FontWeight.BOLD, 24));
 			graphTitle.setStyle("-fx-text-fill: #4b2e1e;");
-			GraphVisualizer graph = new GraphVisualizer(cityList, getOptimalPath(startCity, endCity));
+			GraphVisualizer graph = buildOptimalPathGraph();
 			VBox graphBox = new VBox(15, graphTitle, graph);
 			graphBox.setPadding(new Insets(20));
 			graphBox.setStyle(
@@ -591,6 +526,14 @@ public class Main extends Application {
 
 		btn2.setOnAction(e -> contentPane.getChildren().setAll(altContainer));
 		btn3.setOnAction(e -> contentPane.getChildren().setAll(buildDpTableCard()));
+		// Built on first use and then kept, like altContainer, so the front is
+		// searched for once
+		VBox[] tradeOffCard = new VBox[1];
+		btn4.setOnAction(e -> {
+			if (tradeOffCard[0] == null)
+				tradeOffCard[0] = buildTradeOffCard(network, contentPane);
+			contentPane.getChildren().setAll(tradeOffCard[0]);
+		});
 
 		BorderPane layout = new BorderPane();
 		layout.setLeft(sidebar);
@@ -604,46 +547,71 @@ public class Main extends Application {
 		return layout;
 	}
 
+	// Builds the map of the network with the optimal path from the start city to
+	// the end city highlighted
+	private GraphVisualizer buildOptimalPathGraph() {
+		SolvedNetwork network = getNetwork();
+		int startIndex = network.indexOf(network.getStartCity());
+		int endIndex = network.indexOf(network.getEndCity());
+		int[] path = new int[network.getCityCount()];
+		int hops = startIndex == -1 || endIndex == -1 ? -1 : routeCache.getPath(network, startIndex, endIndex, path);
+		return new GraphVisualizer(network, path, hops + 1);
+	}
+
+	// Opens the map view of one route of a list (alternatives or trade-offs),
+	// leading back to that list
+	private void showRouteOnMap(SolvedNetwork network, TravelPath route, int index, StackPane contentPane,
+			VBox listContainer) {
+		GraphVisualizer g = new GraphVisualizer(network, route.getCities(), route.getCities().length);
+		Label graphTitle = new Label("Map View - Path #" + (index + 1));
+		graphTitle.setFont(Font.font("Georgia", FontWeight.BOLD, 24));
+		graphTitle.setStyle("-fx-text-fill: #4b2e1e;");
+		Button back = new Button("← Back to Routes");
+		back.setStyle(
+				"-fx-background-color: #fce8c3; -fx-text-fill: #4b2e1e; -fx-font-size: 14px; -fx-font-weight: bold; -fx-background-radius: 10; -fx-border-radius: 10;");
+		back.setOnAction(e2 -> contentPane.getChildren().setAll(listContainer));
+		VBox mapView = new VBox(20, back, graphTitle, g);
+		mapView.setPadding(new Insets(30));
+		mapView.setAlignment(Pos.TOP_LEFT);
+		mapView.setStyle("-fx-background-color: #f5f5f5;");
+		contentPane.getChildren().setAll(mapView);
+	}
+
+	// Builds the list of routes trading petrol cost against hotel cost (the
+	// Pareto front), cheapest petrol first
+	private VBox buildTradeOffCard(SolvedNetwork network, StackPane contentPane) {
+		Label title = new Label("Petrol vs Hotel Trade-offs");
+		title.setFont(Font.font("Georgia", FontWeight.BOLD, 33));
+		title.setStyle("-fx-text-fill: #4b2e1e;");
+
+		VBox container = new VBox(20, title);
+		container.setPadding(new Insets(30));
+		container.setStyle("-fx-background-color: #fff9f0;" + "-fx-border-color: #d9ad7c;" + "-fx-border-radius: 12;"
+				+ "-fx-background-radius: 12;" + "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 6, 0.3, 1, 2);");
+		container.setPrefSize(1000, 700);
+
+		// The whole front is found by one search, in the background
+		RouteListView routeList = new RouteListView(network.getGraph(), () -> getParetoRoutes(network).iterator(),
+				Integer.MAX_VALUE, (route, index) -> showRouteOnMap(network, route, index, contentPane, container));
+		routeList.setPrefSize(950, 600);
+		VBox.setVgrow(routeList, Priority.ALWAYS);
+		container.getChildren().add(routeList);
+		return container;
+	}
+
 	// Builds and returns a styled VBox GUI component displaying the DP cost table
 	// (in JavaFX)
 	public VBox buildDpTableCard() {
-		GridPane grid = new GridPane();
-		grid.setHgap(5);
-		grid.setVgap(5);
-		grid.setPadding(new Insets(20));
-		grid.setStyle("-fx-background-color: #fff9f0;");
-
-		// Add column headers (city names)
-		for (int j = 0; j < cityCount; j++) {
-			Label header = new Label(cityList[j].getCityName().toUpperCase());
-			header.setFont(Font.font("Georgia", FontWeight.BOLD, 14));
-			header.setTextFill(Color.web("#4b2e1e"));
-			header.setStyle("-fx-background-color: #fce8c3;" + "-fx-border-color: #d9ad7c;" + "-fx-border-width: 1;"
-					+ "-fx-padding: 8;" + "-fx-min-width: 70;" + "-fx-alignment: center;");
-			grid.add(header, j + 1, 0); // Shifted right by 1 (first column is row header)
-		}
-
-		// Add row headers and cost values
-		for (int i = 0; i < cityCount; i++) {
-			Label rowLabel = new Label(cityList[i].getCityName().toUpperCase());
-			rowLabel.setFont(Font.font("Georgia", FontWeight.BOLD, 14));
-			rowLabel.setTextFill(Color.web("#4b2e1e"));
-			rowLabel.setStyle("-fx-background-color: #fce8c3;" + "-fx-border-color: #d9ad7c;" + "-fx-border-width: 1;"
-					+ "-fx-padding: 8;" + "-fx-min-width: 70;" + "-fx-alignment: center;");
-			grid.add(rowLabel, 0, i + 1);
-
-			for (int j = 0; j < cityCount; j++) {
-				// Get value from costTable or show "INF" if no path exists
-				String value = (costTable[i][j] == Integer.MAX_VALUE) ? "INF" : String.valueOf(costTable[i][j]);
-
-				// Create label for this cell
-				Label cell = new Label(value);
-				cell.setFont(Font.font("monospace", 14));
-				cell.setTextFill(Color.web("#2c2c2c"));
-				cell.setStyle("-fx-background-color: #ffffff;" + "-fx-border-color: #d9d9d9;" + "-fx-border-width: 1;"
-						+ "-fx-padding: 8;" + "-fx-min-width: 70;" + "-fx-alignment: center;");
-				grid.add(cell, j + 1, i + 1); // Add cell to grid
-			}
+		SolvedNetwork network = getNetwork();
+		// Modes answering queries by search never build the table
+		if (!network.hasTables()) {
+			Label notice = new Label("The DP table is not built in " + network.getMode() + " mode.");
+			notice.setStyle("-fx-text-fill: #4b2e1e; -fx-font-size: 16px;");
+			VBox box = new VBox(notice);
+			box.setPadding(new Insets(30));
+			box.setStyle("-fx-background-color: #fff9f0;" + "-fx-border-color: #d9ad7c;" + "-fx-border-radius: 12;"
+					+ "-fx-background-radius: 12;");
+			return box;
 		}
 
 		// Table title
@@ -651,13 +619,12 @@ public class Main extends Application {
 		title.setFont(Font.font("Georgia", FontWeight.BOLD, 30));
 		title.setTextFill(Color.web("#4b2e1e"));
 
-		// Scrollable container for the grid
-		ScrollPane scrollPane = new ScrollPane(grid);
-		scrollPane.setFitToWidth(true);
-		scrollPane.setStyle("-fx-background-color: transparent;");
+		// Draws only the cells in view, so it opens at once for any city count
+		DpTableView table = new DpTableView(network);
+		VBox.setVgrow(table, Priority.ALWAYS);
 
-		// VBox to contain the title and scrollable table
-		VBox box = new VBox(20, title, scrollPane);
+		// VBox to contain the title and the table
+		VBox box = new VBox(20, title, table);
 		box.setPadding(new Insets(30));
 		box.setStyle("-fx-background-color: #fff9f0;" + "-fx-border-color: #d9ad7c;" + "-fx-border-radius: 12;"
 				+ "-fx-background-radius: 12;" + "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 6, 0.3, 1, 2);");
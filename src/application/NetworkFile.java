@@ -0,0 +1,384 @@
+package application;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+  Streaming loader for the network input file:
+
+    NumberOfCities
+    StartCity, EndCity
+    CityA, [CityB, PetrolCost, HotelCost], [CityC, PetrolCost, HotelCost]
+    ...
+
+  The file is memory-mapped in windows of up to 1 GB and tokenized straight
+  from the mapped bytes. Integers are parsed digit by digit and each distinct
+  city name is decoded to a String only once, so a line costs no temporary
+  strings or arrays. The CSR graph is filled in the same single pass over the
+  file; only destination ids are patched at the end, once every declared city
+  is known. Connections to cities that never get a line of their own are
+  dropped, as before.
+ */
+public final class NetworkFile {
+
+	private static final long WINDOW_SIZE = 1L << 30;
+
+	private final CityGraph graph;
+	private final String startCity;
+	private final String endCity;
+	private final int declaredCityCount;
+
+	private NetworkFile(CityGraph graph, String startCity, String endCity, int declaredCityCount) {
+		this.graph = graph;
+		this.startCity = startCity;
+		this.endCity = endCity;
+		this.declaredCityCount = declaredCityCount;
+	}
+
+	// Parses the file at the given path
+	public static NetworkFile load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new Parser(channel).parse();
+		}
+	}
+
+	// Graph of every city that has a line in the file, in file order
+	public CityGraph getGraph() {
+		return graph;
+	}
+
+	public String getStartCity() {
+		return startCity;
+	}
+
+	public String getEndCity() {
+		return endCity;
+	}
+
+	// City count from the first line of the file
+	public int getDeclaredCityCount() {
+		return declaredCityCount;
+	}
+
+	/*
+	 * Single-use tokenizer over the mapped file. Each window is cut just after
+	 * its last newline, so no token ever straddles two windows and the byte
+	 * loops only check one limit. City names are interned in a symbol table
+	 * keyed by their raw bytes; symbols are resolved to city ids
+	 * (case-insensitively, through CityNameIndex) after the last line.
+	 */
+	private static class Parser {
+
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer window;
+		private int pos; // Next byte in the window
+		private int limit; // End of the complete lines in the window
+		private int lineNumber = 1;
+
+		// Symbol table: distinct names as byte ranges of symbolBytes
+		private byte[] symbolBytes = new byte[1 << 12];
+		private int symbolBytesUsed;
+		private long[] symbolRange = new long[256]; // start << 32 | length
+		private int symbolCount;
+		private int[] symbolSlots = new int[1024]; // Pairs of (symbol + 1, hash); symbol 0 = empty
+		private byte[] nameBuffer = new byte[64];
+
+		// Graph under construction
+		private int[] citySymbols = new int[256];
+		private int cityCount;
+		private int[] offsets = new int[257];
+		private int[] edgeSymbols = new int[1024];
+		private int[] petrol = new int[1024];
+		private int[] hotel = new int[1024];
+		private int edgeCount;
+
+		// Header fields
+		private int declaredCount = -1;
+		private String start;
+		private String end;
+
+		Parser(FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+		}
+
+		NetworkFile parse() throws IOException {
+			long position = 0;
+			while (position < size) {
+				long length = Math.min(WINDOW_SIZE, size - position);
+				window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				limit = (int) length;
+				if (position + length < size) {
+					while (limit > 0 && window.get(limit - 1) != '\n')
+						limit--;
+					if (limit == 0)
+						throw error("line longer than " + WINDOW_SIZE + " bytes");
+				}
+				pos = 0;
+				parseLines();
+				position += limit;
+			}
+			if (end == null)
+				throw error("missing start and end cities");
+			return new NetworkFile(buildGraph(), start, end, declaredCount);
+		}
+
+		// Parses every line of the current window
+		private void parseLines() throws IOException {
+			while (true) {
+				skipBlank();
+				if (pos == limit)
+					return;
+				if (declaredCount == -1) {
+					declaredCount = readInt();
+					skipToNextLine();
+				} else if (end == null) {
+					start = symbolName(readName());
+					expect(',');
+					end = symbolName(readName());
+					skipToNextLine();
+				} else {
+					parseCityLine();
+				}
+			}
+		}
+
+		// CityA, [CityB, PetrolCost, HotelCost], ...
+		private void parseCityLine() throws IOException {
+			addCity(readName());
+			while (true) {
+				skipSpacesAndCommas();
+				if (pos == limit || window.get(pos) == '\n')
+					break;
+				expect('[');
+				int destination = readName();
+				expect(',');
+				int petrolCost = readInt();
+				expect(',');
+				int hotelCost = readInt();
+				expect(']');
+				addEdge(destination, petrolCost, hotelCost);
+			}
+			offsets[cityCount] = edgeCount;
+		}
+
+		// Resolves destination symbols to city ids and packs the final arrays
+		private CityGraph buildGraph() {
+			String[] symbolNames = new String[symbolCount];
+			for (int s = 0; s < symbolCount; s++)
+				symbolNames[s] = symbolName(s);
+			String[] names = new String[cityCount];
+			for (int i = 0; i < cityCount; i++)
+				names[i] = symbolNames[citySymbols[i]];
+
+			CityNameIndex nameIndex = new CityNameIndex(names);
+			int[] symbolCity = new int[symbolCount];
+			for (int s = 0; s < symbolCount; s++)
+				symbolCity[s] = nameIndex.indexOf(symbolNames[s]);
+
+			// Patch destinations in place, dropping undeclared ones
+			int kept = 0;
+			int[] graphOffsets = new int[cityCount + 1];
+			for (int i = 0; i < cityCount; i++) {
+				for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+					int target = symbolCity[edgeSymbols[e]];
+					if (target != -1) {
+						edgeSymbols[kept] = target;
+						petrol[kept] = petrol[e];
+						hotel[kept] = hotel[e];
+						kept++;
+					}
+				}
+				graphOffsets[i + 1] = kept;
+			}
+			return new CityGraph(names, nameIndex, graphOffsets, Arrays.copyOf(edgeSymbols, kept),
+					Arrays.copyOf(petrol, kept), Arrays.copyOf(hotel, kept));
+		}
+
+		private void addCity(int symbol) {
+			if (cityCount == citySymbols.length) {
+				citySymbols = Arrays.copyOf(citySymbols, cityCount * 2);
+				offsets = Arrays.copyOf(offsets, cityCount * 2 + 1);
+			}
+			citySymbols[cityCount++] = symbol;
+		}
+
+		private void addEdge(int destination, int petrolCost, int hotelCost) {
+			if (edgeCount == edgeSymbols.length) {
+				edgeSymbols = Arrays.copyOf(edgeSymbols, edgeCount * 2);
+				petrol = Arrays.copyOf(petrol, edgeCount * 2);
+				hotel = Arrays.copyOf(hotel, edgeCount * 2);
+			}
+			edgeSymbols[edgeCount] = destination;
+			petrol[edgeCount] = petrolCost;
+			hotel[edgeCount] = hotelCost;
+			edgeCount++;
+		}
+
+		// ---- Tokens ----
+
+		// Reads a city name up to ',', '[', ']' or the end of the line, trimmed,
+		// and returns its symbol
+		private int readName() throws IOException {
+			skipSpaces();
+			int length = 0;
+			int trimmed = 0;
+			int hash = 0;
+			int trimmedHash = 0;
+			while (pos < limit) {
+				byte c = window.get(pos);
+				if (c == ',' || c == '[' || c == ']' || c == '\n')
+					break;
+				pos++;
+				if (length == nameBuffer.length)
+					nameBuffer = Arrays.copyOf(nameBuffer, length * 2);
+				nameBuffer[length++] = c;
+				hash = 31 * hash + c;
+				if (c != ' ' && c != '\t' && c != '\r') {
+					trimmed = length;
+					trimmedHash = hash;
+				}
+			}
+			if (trimmed == 0)
+				throw error("expected a city name");
+			return symbol(nameBuffer, trimmed, trimmedHash);
+		}
+
+		private int readInt() throws IOException {
+			skipSpaces();
+			boolean negative = pos < limit && window.get(pos) == '-';
+			if (negative)
+				pos++;
+			if (pos == limit || !isDigit(window.get(pos)))
+				throw error("expected a number");
+			long value = 0;
+			while (pos < limit && isDigit(window.get(pos))) {
+				value = value * 10 + (window.get(pos++) - '0');
+				if (value > Integer.MAX_VALUE)
+					throw error("number too large");
+			}
+			return (int) (negative ? -value : value);
+		}
+
+		private static boolean isDigit(byte c) {
+			return c >= '0' && c <= '9';
+		}
+
+		private void expect(char expected) throws IOException {
+			skipSpaces();
+			if (pos == limit || window.get(pos) != expected)
+				throw error("expected '" + expected + "'");
+			pos++;
+		}
+
+		private void skipSpaces() {
+			while (pos < limit) {
+				byte c = window.get(pos);
+				if (c != ' ' && c != '\t' && c != '\r')
+					return;
+				pos++;
+			}
+		}
+
+		private void skipSpacesAndCommas() {
+			while (pos < limit) {
+				byte c = window.get(pos);
+				if (c != ' ' && c != '\t' && c != '\r' && c != ',')
+					return;
+				pos++;
+			}
+		}
+
+		// Skips whitespace including blank lines
+		private void skipBlank() {
+			while (pos < limit) {
+				byte c = window.get(pos);
+				if (c == '\n')
+					lineNumber++;
+				else if (c != ' ' && c != '\t' && c != '\r')
+					return;
+				pos++;
+			}
+		}
+
+		private void skipToNextLine() {
+			while (pos < limit && window.get(pos) != '\n')
+				pos++;
+		}
+
+		private IOException error(String message) {
+			return new IOException("Line " + lineNumber + ": " + message);
+		}
+
+		// ---- Symbols ----
+
+		// Returns the symbol for bytes[0 .. length) with the given hash, adding it
+		// if new. The hash sits next to the symbol in the slot array, so a probe
+		// only touches the name bytes when the hashes already match.
+		private int symbol(byte[] bytes, int length, int hash) {
+			int mask = (symbolSlots.length >>> 1) - 1;
+			int slot = mix(hash) & mask;
+			while (symbolSlots[2 * slot] != 0) {
+				int s = symbolSlots[2 * slot] - 1;
+				if (symbolSlots[2 * slot + 1] == hash && sameBytes(symbolRange[s], bytes, length))
+					return s;
+				slot = (slot + 1) & mask;
+			}
+
+			if (symbolCount == symbolRange.length)
+				symbolRange = Arrays.copyOf(symbolRange, symbolCount * 2);
+			if (symbolBytesUsed + length > symbolBytes.length)
+				symbolBytes = Arrays.copyOf(symbolBytes, Math.max(symbolBytes.length * 2, symbolBytesUsed + length));
+			System.arraycopy(bytes, 0, symbolBytes, symbolBytesUsed, length);
+			symbolRange[symbolCount] = (long) symbolBytesUsed << 32 | length;
+			symbolBytesUsed += length;
+			symbolSlots[2 * slot] = ++symbolCount;
+			symbolSlots[2 * slot + 1] = hash;
+			if (symbolCount > mask >>> 1)
+				rehashSymbols();
+			return symbolCount - 1;
+		}
+
+		private boolean sameBytes(long range, byte[] bytes, int length) {
+			if ((int) range != length)
+				return false;
+			int start = (int) (range >>> 32);
+			for (int i = 0; i < length; i++) {
+				if (symbolBytes[start + i] != bytes[i])
+					return false;
+			}
+			return true;
+		}
+
+		private void rehashSymbols() {
+			int[] slots = new int[symbolSlots.length * 2];
+			int mask = (slots.length >>> 1) - 1;
+			for (int old = 0; old < symbolSlots.length; old += 2) {
+				if (symbolSlots[old] == 0)
+					continue;
+				int slot = mix(symbolSlots[old + 1]) & mask;
+				while (slots[2 * slot] != 0)
+					slot = (slot + 1) & mask;
+				slots[2 * slot] = symbolSlots[old];
+				slots[2 * slot + 1] = symbolSlots[old + 1];
+			}
+			symbolSlots = slots;
+		}
+
+		private static int mix(int hash) {
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+
+		private String symbolName(int symbol) {
+			long range = symbolRange[symbol];
+			return new String(symbolBytes, (int) (range >>> 32), (int) range, StandardCharsets.UTF_8);
+		}
+	}
+}
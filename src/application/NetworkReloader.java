@@ -0,0 +1,187 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+  Watches a network input file and, whenever it changes, solves it again on
+  a background thread and publishes the result with one atomic swap of the
+  shared SolvedNetwork reference.
+
+  Readers never wait: they take the current network from the reference and
+  use that one instance until they are done, while the reload builds a new
+  one next to it. The old network is not closed, because readers may still
+  hold it; its tables are freed by the garbage collector once the last one
+  lets go. A file that cannot be read or parsed (for example, caught half
+  written) leaves the current network in place, and the next change triggers
+  another attempt.
+
+  Events are debounced: the reload starts once the file has been quiet for
+  QUIET_MILLIS, since editors and copy tools write in several steps. Changes
+  arriving during a reload queue exactly one more. The reload thread runs at
+  minimum priority so queries keep the CPU; the solve itself uses whatever
+  the engine's mode uses (DpMode.PARALLEL brings its own workers).
+ */
+public final class NetworkReloader implements AutoCloseable {
+
+	public static final long QUIET_MILLIS = 250;
+
+	/*
+	 * Told about every reload, on the reload thread.
+	 */
+	public interface Listener {
+
+		// A new network was published after solving for the given time
+		default void reloaded(SolvedNetwork network, long nanos) {
+		}
+
+		// A reload (or saving its snapshot) failed; the current network stays
+		default void failed(Path input, Exception error) {
+		}
+	}
+
+	private final RoutingEngine engine;
+	private final Path input;
+	private final Path snapshot;
+	private final AtomicReference<SolvedNetwork> target;
+	private final Listener listener;
+	private final AtomicBoolean queued = new AtomicBoolean();
+	private final AtomicLong reloads = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final ExecutorService reloadThread;
+	private WatchService watchService;
+
+	// Publishes networks solved from input into target. snapshot may be null;
+	// otherwise every reloaded network is also saved there. listener may be
+	// null.
+	public NetworkReloader(RoutingEngine engine, Path input, Path snapshot, AtomicReference<SolvedNetwork> target,
+			Listener listener) {
+		this.engine = engine;
+		this.input = input.toAbsolutePath();
+		this.snapshot = snapshot;
+		this.target = target;
+		this.listener = listener != null ? listener : new Listener() {
+		};
+		this.reloadThread = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "network-reload");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	// Starts watching the input file's directory
+	public synchronized void start() throws IOException {
+		if (watchService != null)
+			throw new IllegalStateException("Already watching " + input);
+		watchService = input.getFileSystem().newWatchService();
+		input.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+		Thread watchThread = new Thread(this::watch, "network-watch");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	// Queues a reload unless one is already waiting to start
+	public void reload() {
+		if (queued.compareAndSet(false, true))
+			reloadThread.execute(this::rebuild);
+	}
+
+	// Networks published so far
+	public long getReloadCount() {
+		return reloads.get();
+	}
+
+	// Reloads that left the current network in place
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	// Stops watching; a reload already running still completes
+	@Override
+	public synchronized void close() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				// Nothing left to release
+			}
+			watchService = null;
+		}
+		reloadThread.shutdown();
+	}
+
+	// Waits for changes to the input file and reloads once they settle
+	private void watch() {
+		WatchService service = watchService;
+		try {
+			while (true) {
+				boolean changed = concernsInput(service.take());
+				while (changed) {
+					WatchKey next = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+					if (next == null) {
+						reload();
+						changed = false;
+					} else {
+						concernsInput(next);
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Closed
+		}
+	}
+
+	// Drains a watch key; true if any of its events is about the input file
+	private boolean concernsInput(WatchKey key) {
+		boolean matches = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || input.getFileName().equals(event.context()))
+				matches = true;
+		}
+		key.reset();
+		return matches;
+	}
+
+	// Solves the file again and swaps the result in
+	private void rebuild() {
+		queued.set(false); // Changes from here on queue another reload
+		long start = System.nanoTime();
+		SolvedNetwork loaded;
+		long checksum;
+		try {
+			checksum = GraphSnapshot.checksum(input);
+			loaded = engine.load(input);
+		} catch (IOException | RuntimeException e) {
+			failures.incrementAndGet();
+			listener.failed(input, e);
+			return;
+		}
+		target.set(loaded);
+		reloads.incrementAndGet();
+		listener.reloaded(loaded, System.nanoTime() - start);
+
+		if (snapshot != null) {
+			try {
+				// Saved only if the file did not change while it was read; if it
+				// did, the reload queued by that change saves it
+				if (GraphSnapshot.checksum(input) == checksum)
+					engine.writeSnapshot(loaded, snapshot, checksum);
+			} catch (IOException e) {
+				listener.failed(input, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package application;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+  Multi-threaded version of BlockedFloydWarshall.
+
+  For every block of intermediate cities the diagonal tile is relaxed on the
+  calling thread, then the row/column tiles and finally the remaining tiles
+  are spread over a ForkJoinPool. Tiles inside one phase never read each
+  other's cells, so the output (costs and previous cities) is identical to the
+  serial blocked engine bit for bit, whatever the parallelism level.
+ */
+public class ParallelFloydWarshall implements AutoCloseable {
+
+	private final ForkJoinPool pool;
+	private final int blockSize;
+	// Row, column and cell tiles of each thread running tasks, reused for every
+	// tile it relaxes; leaves never fork, so a thread runs one leaf at a time
+	private final ThreadLocal<BlockedFloydWarshall.Tile[]> scratch;
+
+	// Creates a solver using the given number of worker threads
+	public ParallelFloydWarshall(int parallelism) {
+		this(parallelism, BlockedFloydWarshall.DEFAULT_BLOCK_SIZE);
+	}
+
+	public ParallelFloydWarshall(int parallelism, int blockSize) {
+		if (blockSize <= 0)
+			throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+		this.pool = new ForkJoinPool(parallelism);
+		this.blockSize = blockSize;
+		this.scratch = ThreadLocal.withInitial(() -> new BlockedFloydWarshall.Tile[] {
+				new BlockedFloydWarshall.Tile(blockSize), new BlockedFloydWarshall.Tile(blockSize),
+				new BlockedFloydWarshall.Tile(blockSize) });
+	}
+
+	// Returns the number of worker threads
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	// Runs the blocked algorithm in place over cost and prev
+	public void solve(IntMatrix cost, IntMatrix prev) {
+		int n = cost.size();
+		int blocks = (n + blockSize - 1) / blockSize;
+		BlockedFloydWarshall.Tile diagonal = new BlockedFloydWarshall.Tile(blockSize);
+		for (int kb = 0; kb < blocks; kb++) {
+			// Phase 1: the diagonal tile, too small to be worth splitting
+			diagonal.load(cost, prev, kb, kb);
+			BlockedFloydWarshall.relax(diagonal, diagonal, diagonal);
+			diagonal.store(cost, prev);
+
+			// Phase 2 and 3 fan out over the pool; workers only read the diagonal
+			pool.invoke(new TileTask(cost, prev, diagonal, kb, 0, blocks, true));
+			pool.invoke(new TileTask(cost, prev, diagonal, kb, 0, blocks, false));
+		}
+	}
+
+	// Shuts down the worker threads
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/*
+	 * Relaxes the tiles of block rows [from, to) for one phase. In the row/column
+	 * phase each block index b stands for the pair of tiles (kb, b) and (b, kb); in
+	 * the last phase it stands for the whole block row b except column kb. Each
+	 * leaf copies its tiles into the heap buffers of the thread running it.
+	 */
+	private class TileTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IntMatrix cost;
+		private final IntMatrix prev;
+		private final BlockedFloydWarshall.Tile diagonal;
+		private final int kb;
+		private final int from;
+		private final int to;
+		private final boolean crossPhase;
+
+		TileTask(IntMatrix cost, IntMatrix prev, BlockedFloydWarshall.Tile diagonal, int kb, int from, int to,
+				boolean crossPhase) {
+			this.cost = cost;
+			this.prev = prev;
+			this.diagonal = diagonal;
+			this.kb = kb;
+			this.from = from;
+			this.to = to;
+			this.crossPhase = crossPhase;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new TileTask(cost, prev, diagonal, kb, from, mid, crossPhase),
+						new TileTask(cost, prev, diagonal, kb, mid, to, crossPhase));
+				return;
+			}
+			if (from == kb)
+				return;
+
+			BlockedFloydWarshall.Tile[] tiles = scratch.get();
+			BlockedFloydWarshall.Tile row = tiles[0];
+			BlockedFloydWarshall.Tile column = tiles[1];
+			if (crossPhase) {
+				row.load(cost, prev, kb, from);
+				BlockedFloydWarshall.relax(diagonal, row, row);
+				row.store(cost, prev);
+				column.load(cost, prev, from, kb);
+				BlockedFloydWarshall.relax(column, diagonal, column);
+				column.store(cost, prev);
+			} else {
+				BlockedFloydWarshall.Tile cell = tiles[2];
+				int blocks = (cost.size() + blockSize - 1) / blockSize;
+				column.load(cost, prev, from, kb);
+				for (int jb = 0; jb < blocks; jb++) {
+					if (jb == kb)
+						continue;
+					row.load(cost, prev, kb, jb);
+					cell.load(cost, prev, from, jb);
+					BlockedFloydWarshall.relax(column, row, cell);
+					cell.store(cost, prev);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+  Bi-criteria route search that keeps petrol and hotel costs apart and
+  returns every Pareto-optimal route between two cities: no route on the
+  front is beaten on one cost without being worse on the other.
+
+  This is a label-setting multi-objective Dijkstra in the form of
+  bi-objective A* (BOA*). A label is one partial route: its city, petrol and
+  hotel cost and parent label. Labels leave the queue in lexicographic order
+  of (petrol, hotel) estimates, so a label is dominated exactly when its
+  hotel cost is not below that of the last label settled at its city, and
+  any label whose hotel estimate cannot beat the last route found at the
+  end is dropped. The estimates add lower bounds on the remaining petrol
+  and hotel costs, found by two reverse Dijkstra runs from the end city.
+
+  Labels live in growable primitive pools reused between runs, and the
+  queue is a binary heap of label ids keyed by one packed long, so a search
+  allocates nothing per label. Not thread-safe; use one instance per thread.
+ */
+public class ParetoRouter {
+
+	private static final int INF = Integer.MAX_VALUE;
+	private static final int INITIAL_LABELS = 1024;
+
+	private final CityGraph graph;
+	private final int cityCount;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] petrol;
+	private final int[] hotel;
+
+	// Reverse CSR for the lower bounds: edges into each city
+	private final int[] reverseOffsets;
+	private final int[] reverseEdges; // Forward edge index of each reverse edge
+	private final int[] reverseSources; // City each reverse edge leads back to
+
+	private final int[] petrolBound; // Lower bound on the petrol cost to the end
+	private final int[] hotelBound; // Lower bound on the hotel cost to the end
+	private final int[] minHotel; // Hotel cost of the last label settled per city
+	private final IntBinaryHeap boundQueue;
+
+	// Label pool
+	private int[] labelCity = new int[INITIAL_LABELS];
+	private int[] labelParent = new int[INITIAL_LABELS];
+	private int[] labelPetrol = new int[INITIAL_LABELS];
+	private int[] labelHotel = new int[INITIAL_LABELS];
+	private int labelCount;
+
+	// Open labels: binary min-heap of label ids keyed by (petrol << 32 | hotel)
+	// estimates
+	private int[] heap = new int[INITIAL_LABELS];
+	private long[] heapKeys = new long[INITIAL_LABELS];
+	private int heapSize;
+
+	private int settledCount;
+
+	public ParetoRouter(CityGraph graph) {
+		this.graph = graph;
+		this.cityCount = graph.getCityCount();
+		this.offsets = graph.offsets();
+		this.targets = graph.targets();
+		this.petrol = graph.petrolCosts();
+		this.hotel = graph.hotelCosts();
+
+		this.reverseOffsets = graph.reverseOffsets();
+		this.reverseEdges = graph.reverseEdges();
+		this.reverseSources = graph.reverseSources();
+
+		petrolBound = new int[cityCount];
+		hotelBound = new int[cityCount];
+		minHotel = new int[cityCount];
+		boundQueue = new IntBinaryHeap(cityCount);
+	}
+
+	// Returns the Pareto front from one city to another, by increasing petrol
+	// (and so decreasing hotel) cost; empty if 'to' is unreachable
+	public List<TravelPath> solve(int from, int to) {
+		return solve(from, to, INF);
+	}
+
+	// Returns the Pareto routes whose hotel cost is at most maxHotel. The first
+	// one is the route with the cheapest petrol under that hotel budget.
+	public List<TravelPath> solve(int from, int to, int maxHotel) {
+		List<TravelPath> front = new ArrayList<>();
+		settledCount = 0;
+		labelCount = 0;
+		heapSize = 0;
+
+		lowerBounds(to, petrol, petrolBound);
+		lowerBounds(to, hotel, hotelBound);
+		if (petrolBound[from] == INF || hotelBound[from] > maxHotel)
+			return front;
+		Arrays.fill(minHotel, INF);
+		// Hotel cost a new route must stay below to join the front
+		long hotelLimit = (long) maxHotel + 1;
+
+		push(from, -1, 0, 0);
+		while (heapSize > 0) {
+			int label = poll();
+			int city = labelCity[label];
+			int labelHotelCost = labelHotel[label];
+			if (labelHotelCost >= minHotel[city] || labelHotelCost + hotelBound[city] >= hotelLimit)
+				continue; // Dominated
+			minHotel[city] = labelHotelCost;
+			settledCount++;
+
+			if (city == to) {
+				front.add(toRoute(label));
+				hotelLimit = labelHotelCost;
+				continue;
+			}
+
+			int labelPetrolCost = labelPetrol[label];
+			for (int e = offsets[city]; e < offsets[city + 1]; e++) {
+				int next = targets[e];
+				if (petrolBound[next] == INF)
+					continue; // Cannot reach the end
+				int nextHotel = labelHotelCost + hotel[e];
+				if (nextHotel >= minHotel[next] || (long) nextHotel + hotelBound[next] >= hotelLimit)
+					continue;
+				push(next, label, labelPetrolCost + petrol[e], nextHotel);
+			}
+		}
+		return front;
+	}
+
+	// Number of labels settled (not dominated when taken from the queue) by
+	// the last run
+	public int getSettledCount() {
+		return settledCount;
+	}
+
+	// Number of labels created by the last run
+	public int getLabelCount() {
+		return labelCount;
+	}
+
+	// Fills bound with the cheapest cost of each city to the end city under
+	// one of the two costs (Dijkstra over the reverse graph)
+	private void lowerBounds(int to, int[] weights, int[] bound) {
+		Arrays.fill(bound, INF);
+		boundQueue.clear();
+		bound[to] = 0;
+		boundQueue.insertOrDecrease(to, 0);
+		while (!boundQueue.isEmpty()) {
+			int city = boundQueue.poll();
+			int cost = bound[city];
+			for (int r = reverseOffsets[city]; r < reverseOffsets[city + 1]; r++) {
+				int previous = reverseSources[r];
+				int newCost = cost + weights[reverseEdges[r]];
+				if (newCost < bound[previous]) {
+					bound[previous] = newCost;
+					boundQueue.insertOrDecrease(previous, newCost);
+				}
+			}
+		}
+	}
+
+	// Adds a label to the pool and the queue
+	private void push(int city, int parent, int petrolCost, int hotelCost) {
+		if (labelCount == labelCity.length) {
+			int capacity = labelCount * 2;
+			labelCity = Arrays.copyOf(labelCity, capacity);
+			labelParent = Arrays.copyOf(labelParent, capacity);
+			labelPetrol = Arrays.copyOf(labelPetrol, capacity);
+			labelHotel = Arrays.copyOf(labelHotel, capacity);
+		}
+		int label = labelCount++;
+		labelCity[label] = city;
+		labelParent[label] = parent;
+		labelPetrol[label] = petrolCost;
+		labelHotel[label] = hotelCost;
+
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+			heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+		}
+		long key = (long) (petrolCost + petrolBound[city]) << 32 | (hotelCost + hotelBound[city]) & 0xFFFFFFFFL;
+		int slot = heapSize++;
+		while (slot > 0) {
+			int parentSlot = (slot - 1) >>> 1;
+			if (heapKeys[parentSlot] <= key)
+				break;
+			heap[slot] = heap[parentSlot];
+			heapKeys[slot] = heapKeys[parentSlot];
+			slot = parentSlot;
+		}
+		heap[slot] = label;
+		heapKeys[slot] = key;
+	}
+
+	// Removes and returns the open label with the smallest estimates
+	private int poll() {
+		int top = heap[0];
+		heapSize--;
+		if (heapSize > 0) {
+			int label = heap[heapSize];
+			long key = heapKeys[heapSize];
+			int slot = 0;
+			int half = heapSize >>> 1;
+			while (slot < half) {
+				int child = 2 * slot + 1;
+				if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+					child++;
+				if (key <= heapKeys[child])
+					break;
+				heap[slot] = heap[child];
+				heapKeys[slot] = heapKeys[child];
+				slot = child;
+			}
+			heap[slot] = label;
+			heapKeys[slot] = key;
+		}
+		return top;
+	}
+
+	// Builds the route ending with the given label
+	private TravelPath toRoute(int label) {
+		int length = 0;
+		for (int l = label; l != -1; l = labelParent[l])
+			length++;
+		int[] cities = new int[length];
+		for (int l = label, i = length - 1; l != -1; l = labelParent[l], i--)
+			cities[i] = labelCity[l];
+		return new TravelPath(graph, cities, labelPetrol[label], labelHotel[label]);
+	}
+}
@@ -0,0 +1,228 @@
+package application;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+  Bounded, thread-safe cache of route answers (cost and path), keyed by
+  start city, end city and network version.
+
+  Mostly useful in DpMode.DIJKSTRA, DpMode.ALT and DpMode.CH, where every uncached
+  lookup runs a search, and for popular routes whose paths would otherwise be rebuilt and
+  formatted again on every request. Entries are spread over segments by
+  key hash; each segment is an access-ordered LinkedHashMap under its own
+  lock and evicts its least recently used entry once full.
+
+  The cache follows the newest network it is asked about: when a lookup
+  arrives with a newer SolvedNetwork version, every entry is dropped. Lookups
+  on an older network than the current one are answered directly and never
+  cached. Answers are computed outside the segment lock, so two threads
+  missing on the same key at once may both compute it.
+ */
+public final class RouteCache {
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private final Segment[] segments;
+	private final int segmentMask;
+	private final int capacity;
+	private volatile long version = -1;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	// Creates a cache holding at most capacity routes
+	public RouteCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(capacity));
+		this.segments = new Segment[segmentCount];
+		this.segmentMask = segmentCount - 1;
+		this.capacity = capacity;
+		for (int s = 0; s < segmentCount; s++)
+			segments[s] = new Segment(capacity / segmentCount + (s < capacity % segmentCount ? 1 : 0));
+	}
+
+	// Minimum cost from one city id to another, or SolvedNetwork.INF
+	public int getCost(SolvedNetwork network, int from, int to) {
+		Route route = lookup(network, from, to, false);
+		return route != null ? route.cost : network.getCost(from, to);
+	}
+
+	// Same contract as SolvedNetwork.getPath(from, to, path)
+	public int getPath(SolvedNetwork network, int from, int to, int[] path) {
+		Route route = lookup(network, from, to, true);
+		if (route == null)
+			return network.getPath(from, to, path);
+		if (route.path == null)
+			return -1;
+		System.arraycopy(route.path, 0, path, 0, Math.min(route.path.length, path.length));
+		return route.path.length - 1;
+	}
+
+	// Same contract as SolvedNetwork.getOptimalPath(start, end)
+	public String getOptimalPath(SolvedNetwork network, String start, String end) {
+		int startIdx = network.indexOf(start);
+		int endIdx = network.indexOf(end);
+		if (startIdx == -1 || endIdx == -1)
+			return "No path exists";
+		Route route = lookup(network, startIdx, endIdx, true);
+		if (route == null)
+			return network.getOptimalPath(start, end);
+		return route.path == null ? "No path exists" : network.formatPath(route.path, 0, route.path.length);
+	}
+
+	// Returns the cached route, computing and caching it on a miss, or null if
+	// the network is older than the cache's current version
+	private Route lookup(SolvedNetwork network, int from, int to, boolean withPath) {
+		long networkVersion = network.getVersion();
+		if (networkVersion != version && !follow(networkVersion)) {
+			misses.increment();
+			return null;
+		}
+
+		long key = (long) from << 32 | (to & 0xFFFFFFFFL);
+		Segment segment = segments[hash(key) & segmentMask];
+		Route route;
+		synchronized (segment) {
+			route = segment.get(key);
+		}
+		if (route != null && route.version == networkVersion && (route.pathKnown || !withPath)) {
+			hits.increment();
+			return route;
+		}
+
+		misses.increment();
+		int cost = network.getCost(from, to);
+		int[] path = null;
+		if (withPath && cost != SolvedNetwork.INF) {
+			path = new int[network.getHopCount(from, to) + 1];
+			network.getPath(from, to, path);
+		}
+		route = new Route(networkVersion, cost, path, withPath);
+		synchronized (segment) {
+			if (version == networkVersion)
+				segment.put(key, route);
+		}
+		return route;
+	}
+
+	// Moves the cache to a newer network version, dropping every entry.
+	// Returns false if the version is older than the current one.
+	private synchronized boolean follow(long networkVersion) {
+		if (networkVersion < version)
+			return false;
+		if (networkVersion > version) {
+			version = networkVersion; // From here on, older routes are not stored
+			for (Segment segment : segments) {
+				synchronized (segment) {
+					invalidations.add(segment.size());
+					segment.clear();
+				}
+			}
+		}
+		return true;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	// Maximum number of cached routes
+	public int getCapacity() {
+		return capacity;
+	}
+
+	// Number of cached routes
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	// Lookups answered from the cache
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	// Lookups that had to compute their answer
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	// Routes dropped to make room for newer ones
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	// Routes dropped because a newer network version arrived
+	public long getInvalidationCount() {
+		return invalidations.sum();
+	}
+
+	// Drops every cached route; the counters are kept
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		long lookups = getHitCount() + getMissCount();
+		return String.format(
+				"RouteCache[size=%d/%d, hits=%d, misses=%d, hit rate=%.1f%%, evictions=%d, invalidations=%d]", size(),
+				capacity, getHitCount(), getMissCount(), lookups == 0 ? 0.0 : 100.0 * getHitCount() / lookups,
+				getEvictionCount(), getInvalidationCount());
+	}
+
+	/*
+	 * A cached answer. path is null if the end is unreachable or, when pathKnown
+	 * is false, if only the cost was asked for so far.
+	 */
+	private static final class Route {
+
+		final long version;
+		final int cost;
+		final int[] path;
+		final boolean pathKnown;
+
+		Route(long version, int cost, int[] path, boolean pathKnown) {
+			this.version = version;
+			this.cost = cost;
+			this.path = path;
+			this.pathKnown = pathKnown;
+		}
+	}
+
+	/*
+	 * One lock's share of the cache, in least recently used order.
+	 */
+	private final class Segment extends LinkedHashMap<Long, Route> {
+
+		private static final long serialVersionUID = 1L;
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Route> eldest) {
+			if (size() <= capacity)
+				return false;
+			evictions.increment();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+/*
+  List of route cards that fills in while the routes are being searched for,
+  without blocking the JavaFX thread.
+
+  Routes come from an iterator that is created and advanced only on the
+  search thread, since finding each one can take many searches on a large
+  network. Every page of routes runs there as a javafx.concurrent.Task:
+  routes reach the list as soon as they are found (several at once share
+  one Platform.runLater), a progress indicator counts them, and Cancel stops
+  the task before the next route. "Show More Routes" runs the next page on
+  the same iterator. The cards are cells of a ListView, so only the ones on
+  screen exist however many routes are listed.
+ */
+public class RouteListView extends VBox {
+
+	// One thread for all route searches, so two pages of a list never run at once
+	private static final ExecutorService SEARCH_THREAD = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "route-search");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final CityGraph graph;
+	private final Supplier<? extends Iterator<TravelPath>> source;
+	private final int pageSize;
+	private final BiConsumer<TravelPath, Integer> onVisualize;
+	private final Image moneyImage = new Image(getClass().getResource("/money.png").toExternalForm());
+
+	private final ObservableList<TravelPath> routes = FXCollections.observableArrayList();
+	private final ListView<TravelPath> list = new ListView<>(routes);
+	private final ProgressIndicator progress = new ProgressIndicator();
+	private final Label status = new Label();
+	private final Label placeholder = new Label();
+	private final Button cancelButton = new Button("Cancel");
+	private final Button moreButton = new Button("Show More Routes");
+
+	// Routes found but not yet in the list, and whether a runLater will add them
+	private final ConcurrentLinkedQueue<TravelPath> arrived = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean addQueued = new AtomicBoolean();
+
+	private Iterator<TravelPath> iterator; // Only used on the search thread
+	private Task<Integer> page; // Page being searched, or null
+
+	// Lists routes of the graph from source, pageSize at a time (all at once for
+	// Integer.MAX_VALUE). source is called on the search thread and may return
+	// null for no routes. onVisualize gets a route and its index in the list.
+	public RouteListView(CityGraph graph, Supplier<? extends Iterator<TravelPath>> source, int pageSize,
+			BiConsumer<TravelPath, Integer> onVisualize) {
+		super(12);
+		this.graph = graph;
+		this.source = source;
+		this.pageSize = pageSize;
+		this.onVisualize = onVisualize;
+
+		list.setCellFactory(view -> new RouteCell());
+		list.setPlaceholder(placeholder);
+		list.setStyle("-fx-background-color: transparent; -fx-background-insets: 0;");
+		placeholder.setStyle("-fx-text-fill: #4b2e1e; -fx-font-size: 16px;");
+		VBox.setVgrow(list, Priority.ALWAYS);
+
+		progress.setPrefSize(24, 24);
+		status.setStyle("-fx-text-fill: #4b2e1e; -fx-font-size: 14px; -fx-font-weight: bold;");
+		cancelButton.setStyle(
+				"-fx-background-color: #fce8c3; -fx-text-fill: #4b2e1e; -fx-font-size: 13px; -fx-font-weight: bold;");
+		cancelButton.setOnAction(e -> {
+			if (page != null)
+				page.cancel();
+		});
+		moreButton.setStyle("-fx-background-color: #4b2e1e; -fx-text-fill: white; -fx-font-size: 13px;");
+		moreButton.setOnAction(e -> loadPage());
+
+		HBox statusBar = new HBox(10, progress, status, cancelButton, moreButton);
+		statusBar.setAlignment(Pos.CENTER_LEFT);
+		getChildren().addAll(list, statusBar);
+		loadPage();
+	}
+
+	// Searches the next page of routes in the background
+	private void loadPage() {
+		if (page != null)
+			return;
+		int listed = routes.size();
+		Task<Integer> task = new Task<>() {
+			@Override
+			protected Integer call() {
+				if (iterator == null) {
+					iterator = source.get();
+					if (iterator == null)
+						iterator = Collections.emptyIterator();
+				}
+				int found = 0;
+				updateMessage("Searching for routes...");
+				while (found < pageSize && !isCancelled() && iterator.hasNext()) {
+					publish(iterator.next());
+					found++;
+					if (pageSize != Integer.MAX_VALUE)
+						updateProgress(found, pageSize);
+					updateMessage("Found " + (listed + found) + " routes...");
+				}
+				return found;
+			}
+		};
+		task.setOnSucceeded(e -> finishPage(task.getValue() < pageSize, null));
+		task.setOnCancelled(e -> finishPage(false, "stopped"));
+		task.setOnFailed(e -> finishPage(false, "search failed: " + task.getException().getMessage()));
+
+		page = task;
+		placeholder.setText("Searching for routes...");
+		progress.progressProperty().bind(task.progressProperty());
+		status.textProperty().bind(task.messageProperty());
+		progress.setVisible(true);
+		cancelButton.setVisible(true);
+		moreButton.setVisible(false);
+		SEARCH_THREAD.execute(task);
+	}
+
+	// Called on the search thread for each route found
+	private void publish(TravelPath route) {
+		arrived.add(route);
+		if (addQueued.compareAndSet(false, true))
+			Platform.runLater(this::addArrived);
+	}
+
+	private void addArrived() {
+		addQueued.set(false); // Routes arriving from here on queue another call
+		List<TravelPath> batch = new ArrayList<>();
+		for (TravelPath route = arrived.poll(); route != null; route = arrived.poll())
+			batch.add(route);
+		routes.addAll(batch);
+	}
+
+	// Shows the outcome of a page; complete if the routes ran out, note says
+	// why the page ended early (null if it did not)
+	private void finishPage(boolean complete, String note) {
+		page = null;
+		addArrived();
+		progress.progressProperty().unbind();
+		status.textProperty().unbind();
+		progress.setVisible(false);
+		cancelButton.setVisible(false);
+		moreButton.setVisible(!complete);
+		placeholder.setText(complete ? "No path exists" : "No routes found yet");
+		String count = routes.size() == 1 ? "1 route" : routes.size() + " routes";
+		status.setText(note == null ? count : count + " (" + note + ")");
+	}
+
+	/*
+	 * One route card, reused for whichever route scrolls into its place.
+	 */
+	private final class RouteCell extends ListCell<TravelPath> {
+
+		private final Label title = new Label();
+		private final TextFlow pathFlow = new TextFlow();
+		private final Label costText = new Label();
+		private final VBox card;
+
+		RouteCell() {
+			title.setFont(Font.font("Georgia", FontWeight.BOLD, 18));
+			title.setStyle("-fx-text-fill: #4b2e1e;");
+			pathFlow.setLineSpacing(4);
+			pathFlow.prefWidthProperty().bind(list.widthProperty().subtract(90));
+
+			ImageView moneyIcon = new ImageView(moneyImage);
+			moneyIcon.setFitWidth(18);
+			moneyIcon.setFitHeight(18);
+			costText.setStyle("-fx-text-fill: #b26a00; -fx-font-size: 14px; -fx-font-weight: bold;");
+			HBox costBox = new HBox(6, moneyIcon, costText);
+
+			Button visualize = new Button("Visualize on Map");
+			visualize.setStyle("-fx-background-color: #4b2e1e; -fx-text-fill: white; -fx-font-size: 13px;");
+			visualize.setOnAction(e -> onVisualize.accept(getItem(), getIndex()));
+
+			card = new VBox(12, title, pathFlow, costBox, visualize);
+			card.setPadding(new Insets(20, 25, 20, 25));
+			card.setStyle("-fx-background-color: #fff9f0; -fx-border-color: #d9ad7c; "
+					+ "-fx-border-radius: 12; -fx-background-radius: 12; -fx-effect: dropshadow(gaussian, "
+					+ "rgba(0,0,0,0.1), 6, 0.3, 1, 2);");
+			setStyle("-fx-background-color: transparent; -fx-padding: 8 10 8 4;");
+		}
+
+		@Override
+		protected void updateItem(TravelPath route, boolean empty) {
+			super.updateItem(route, empty);
+			if (empty || route == null) {
+				setGraphic(null);
+				return;
+			}
+			title.setText("Path #" + (getIndex() + 1));
+
+			pathFlow.getChildren().clear();
+			int[] cities = route.getCities();
+			for (int j = 0; j < cities.length; j++) {
+				Text cityText = new Text(graph.getCityName(cities[j]));
+				cityText.setFill(Color.web("#4b2e1e"));
+				cityText.setFont(Font.font("Segoe UI", FontWeight.BOLD, 15));
+				pathFlow.getChildren().add(cityText);
+				if (j < cities.length - 1) {
+					Text arrow = new Text(" -> ");
+					arrow.setFill(Color.GRAY);
+					arrow.setFont(Font.font("Segoe UI", FontWeight.NORMAL, 15));
+					pathFlow.getChildren().add(arrow);
+				}
+			}
+
+			String costLine = "Cost: " + route.getCost();
+			if (route.getPetrolCost() != -1) {
+				costLine += "  (Petrol: " + route.getPetrolCost() + ", Hotel: " + route.getHotelCost() + ")";
+			}
+			costText.setText(costLine);
+			setGraphic(card);
+		}
+	}
+}
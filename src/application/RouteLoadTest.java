@@ -0,0 +1,177 @@
+package application;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+  Local load test for RouteServer: serves a generated network on a free port
+  and sends /route requests from several client threads for a fixed time.
+
+  Usage: java application.RouteLoadTest [cities] [clients] [seconds] [mode] [routes]
+  Defaults to a 20000-city geometric network in DpMode.CH, 16 clients and 10
+  seconds. Requests pick from a fixed set of routes (10000 by default), so
+  the route cache sees the repeats of a real workload. Each client keeps one
+  HTTP/1.1 connection open and waits for every response before sending the
+  next request; the report gives requests per second and latency
+  percentiles, and fails if any response is not 200.
+ */
+public class RouteLoadTest {
+
+	private static final int AVG_DEGREE = 6;
+	private static final int MAX_COST = 100;
+
+	public static void main(String[] args) throws Exception {
+		int cities = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		DpMode mode = args.length > 3 ? DpMode.fromName(args[3]) : DpMode.CH;
+		int routes = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+
+		CityGraph graph = CityGraph.fromCities(GraphGenerator.geometric(cities, AVG_DEGREE, MAX_COST, cities));
+		long start = System.nanoTime();
+		SolvedNetwork network = new RoutingEngine(mode, Runtime.getRuntime().availableProcessors(), true)
+				.solve(graph, GraphGenerator.cityName(0), GraphGenerator.cityName(1));
+		System.out.printf("%d cities solved in %s mode in %.1f ms%n", cities, mode, (System.nanoTime() - start) / 1e6);
+
+		Random random = new Random(cities);
+		byte[][] requests = new byte[routes][];
+		for (int r = 0; r < routes; r++) {
+			requests[r] = ("GET /route?from=" + GraphGenerator.cityName(random.nextInt(cities)) + "&to="
+					+ GraphGenerator.cityName(random.nextInt(cities)) + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII);
+		}
+
+		try (RouteServer server = new RouteServer(() -> network, new RouteCache(routes))) {
+			server.start(0, 4 * Runtime.getRuntime().availableProcessors());
+			System.out.printf("Server on port %d (%s), %d clients for %d s%n", server.getPort(),
+					server.usesVirtualThreads() ? "virtual threads" : "platform threads", clients, seconds);
+
+			// Warm-up, then the measured run
+			run(server.getPort(), requests, clients, Math.min(seconds, 3) * 1_000_000_000L);
+			Client[] results = run(server.getPort(), requests, clients, seconds * 1_000_000_000L);
+
+			long count = 0;
+			long failed = 0;
+			for (Client client : results) {
+				count += client.count;
+				failed += client.failed;
+			}
+			long[] latencies = new long[(int) count];
+			int filled = 0;
+			for (Client client : results) {
+				System.arraycopy(client.latencies, 0, latencies, filled, client.count);
+				filled += client.count;
+			}
+			Arrays.sort(latencies);
+			System.out.printf("%d requests, %.0f requests/s, %d failed%n", count, count / (double) seconds, failed);
+			System.out.printf("latency (us): p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, max %.0f%n",
+					percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+					percentile(latencies, 0.999), latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e3);
+			if (failed > 0)
+				throw new IllegalStateException(failed + " requests failed");
+		}
+	}
+
+	// Runs the clients for the given time and waits for them
+	private static Client[] run(int port, byte[][] requests, int clients, long nanos) throws InterruptedException {
+		Client[] running = new Client[clients];
+		long deadline = System.nanoTime() + nanos;
+		for (int c = 0; c < clients; c++) {
+			running[c] = new Client(port, requests, c, deadline);
+			running[c].start();
+		}
+		for (Client client : running)
+			client.join();
+		return running;
+	}
+
+	private static double percentile(long[] sorted, double fraction) {
+		if (sorted.length == 0)
+			return 0;
+		return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+	}
+
+	/*
+	 * One keep-alive connection sending requests back to back until the
+	 * deadline, recording the latency of each.
+	 */
+	private static final class Client extends Thread {
+
+		private final int port;
+		private final byte[][] requests;
+		private final Random random;
+		private final long deadline;
+		private final byte[] body = new byte[64 * 1024];
+		long[] latencies = new long[1 << 16];
+		int count;
+		int failed;
+
+		Client(int port, byte[][] requests, int id, long deadline) {
+			super("load-client-" + id);
+			this.port = port;
+			this.requests = requests;
+			this.random = new Random(id);
+			this.deadline = deadline;
+		}
+
+		@Override
+		public void run() {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+				socket.setTcpNoDelay(true);
+				OutputStream out = socket.getOutputStream();
+				InputStream in = new BufferedInputStream(socket.getInputStream());
+				long now = System.nanoTime();
+				while (now < deadline) {
+					out.write(requests[random.nextInt(requests.length)]);
+					out.flush();
+					if (readResponse(in) != 200)
+						failed++;
+					long end = System.nanoTime();
+					if (count == latencies.length)
+						latencies = Arrays.copyOf(latencies, count * 2);
+					latencies[count++] = end - now;
+					now = end;
+				}
+			} catch (IOException e) {
+				failed++;
+				System.out.println(getName() + ": " + e.getMessage());
+			}
+		}
+
+		// Reads one response and returns its status code
+		private int readResponse(InputStream in) throws IOException {
+			String statusLine = readLine(in);
+			int status = Integer.parseInt(statusLine.substring(9, 12));
+			int length = 0;
+			for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+				if (header.regionMatches(true, 0, "Content-Length:", 0, 15))
+					length = Integer.parseInt(header.substring(15).trim());
+			}
+			for (int read = 0; read < length;) {
+				int n = in.read(body, 0, Math.min(body.length, length - read));
+				if (n < 0)
+					throw new IOException("Connection closed mid-response");
+				read += n;
+			}
+			return status;
+		}
+
+		private static String readLine(InputStream in) throws IOException {
+			StringBuilder line = new StringBuilder();
+			for (int c = in.read(); c != '\n'; c = in.read()) {
+				if (c < 0)
+					throw new IOException("Connection closed");
+				if (c != '\r')
+					line.append((char) c);
+			}
+			return line.toString();
+		}
+	}
+}
@@ -0,0 +1,405 @@
+package application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+  Headless HTTP service answering route queries from the solved network in
+  memory, built on the JDK's com.sun.net.httpserver.
+
+  Endpoints (GET, JSON responses; from and to default to the start and end
+  city of the input file):
+    /route?from=A&to=B             cost and cities of the cheapest route
+    /alternatives?from=A&to=B&k=5  the k cheapest loopless routes
+    /table                         names and full cost table (table modes only)
+
+  Requests run on virtual threads when the JVM has them (Java 21, or 19 and
+  20 with preview features enabled), found by reflection so the code still
+  compiles for Java 17; otherwise on a fixed pool of platform threads. JSON
+  is written into byte buffers taken from a small pool and returned after
+  each request, so a response allocates no strings. The network is read
+  through a supplier on every request, so callers can swap in a new one at
+  any time; requests already running finish on the one they started with.
+ */
+public final class RouteServer implements AutoCloseable {
+
+	public static final int DEFAULT_ALTERNATIVES = 5;
+	public static final int MAX_ALTERNATIVES = 100;
+
+	private static final int BACKLOG = 1024;
+	private static final int POOL_SIZE = 256; // Response buffers kept for reuse
+	private static final int FLUSH_BYTES = 64 * 1024; // Streamed responses are sent in pieces of this size
+	private static final int MAX_POOLED_BYTES = 1 << 20; // Larger buffers are dropped instead of pooled
+
+	private final Supplier<SolvedNetwork> networks;
+	private final RouteCache cache;
+	private final ArrayBlockingQueue<JsonBuffer> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+	private HttpServer server;
+	private ExecutorService executor;
+	private boolean virtualThreads;
+
+	// Serves the network returned by networks at the time of each request.
+	// cache may be null; /route then asks the network directly.
+	public RouteServer(Supplier<SolvedNetwork> networks, RouteCache cache) {
+		this.networks = networks;
+		this.cache = cache;
+	}
+
+	// Starts listening on the port (0 picks a free one) with requests running
+	// on platformThreads threads if virtual threads are not available
+	public void start(int port, int platformThreads) throws IOException {
+		if (server != null)
+			throw new IllegalStateException("Server already started");
+		// The JDK server writes headers and body separately; with Nagle's
+		// algorithm on, each response then waits for the client's delayed ACK
+		// (about 40 ms). Read once, when the first server is created.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+		server.createContext("/route", exchange -> handle(exchange, this::route));
+		server.createContext("/alternatives", exchange -> handle(exchange, this::alternatives));
+		server.createContext("/table", exchange -> handle(exchange, this::table));
+		executor = virtualThreadExecutor();
+		virtualThreads = executor != null;
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(platformThreads);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	// Port the server listens on
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	// True if requests run on virtual threads
+	public boolean usesVirtualThreads() {
+		return virtualThreads;
+	}
+
+	// Stops accepting requests and waits up to a second for running ones
+	@Override
+	public void close() {
+		if (server != null) {
+			server.stop(1);
+			executor.shutdown();
+			server = null;
+		}
+	}
+
+	// A virtual-thread-per-task executor, or null if the JVM has none
+	static ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null; // Before Java 19
+		} catch (InvocationTargetException e) {
+			return null; // Java 19 or 20 without --enable-preview
+		}
+	}
+
+	/*
+	 * Writes one response into a buffer and sends it; a large body may be
+	 * sent in several pieces.
+	 */
+	private interface Endpoint {
+		void respond(HttpExchange exchange, SolvedNetwork network, JsonBuffer json) throws IOException;
+	}
+
+	// Runs an endpoint with a pooled buffer, turning bad parameters into 400
+	// and unknown cities into 404 responses
+	private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+		JsonBuffer json = buffers.poll();
+		if (json == null)
+			json = new JsonBuffer();
+		try (exchange) {
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				send(exchange, 405, json.reset().error("Only GET is supported"));
+				return;
+			}
+			SolvedNetwork network = networks.get();
+			if (network == null) {
+				send(exchange, 503, json.reset().error("No network loaded"));
+				return;
+			}
+			try {
+				endpoint.respond(exchange, network, json.reset());
+			} catch (UnknownCityException e) {
+				send(exchange, 404, json.reset().error(e.getMessage()));
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				send(exchange, 400, json.reset().error(e.getMessage()));
+			}
+		} finally {
+			if (json.capacity() <= MAX_POOLED_BYTES)
+				buffers.offer(json);
+		}
+	}
+
+	// Sends a complete body with its length
+	private static void send(HttpExchange exchange, int status, JsonBuffer json) throws IOException {
+		exchange.sendResponseHeaders(status, json.size());
+		json.writeTo(exchange.getResponseBody());
+	}
+
+	// /route?from=&to=
+	private void route(HttpExchange exchange, SolvedNetwork network, JsonBuffer json) throws IOException {
+		String query = exchange.getRequestURI().getRawQuery();
+		int from = city(network, parameter(query, "from"), network.getStartCity());
+		int to = city(network, parameter(query, "to"), network.getEndCity());
+
+		int[] path = json.path(Math.min(network.getCityCount(), 64));
+		int hops = cache != null ? cache.getPath(network, from, to, path) : network.getPath(from, to, path);
+		if (hops >= path.length) {
+			path = json.path(hops + 1);
+			hops = cache != null ? cache.getPath(network, from, to, path) : network.getPath(from, to, path);
+		}
+		int cost = hops == -1 ? SolvedNetwork.INF : cache != null ? cache.getCost(network, from, to)
+				: network.getCost(from, to);
+
+		CityGraph graph = network.getGraph();
+		json.raw("{\"from\":").string(graph.getCityName(from)).raw(",\"to\":").string(graph.getCityName(to))
+				.raw(",\"cost\":").cost(cost).raw(",\"hops\":").cost(hops == -1 ? SolvedNetwork.INF : hops).raw(",\"path\":[");
+		for (int i = 0; i <= hops; i++) {
+			if (i > 0)
+				json.raw(",");
+			json.string(graph.getCityName(path[i]));
+		}
+		send(exchange, 200, json.raw("]}"));
+	}
+
+	// /alternatives?from=&to=&k=
+	private void alternatives(HttpExchange exchange, SolvedNetwork network, JsonBuffer json) throws IOException {
+		String query = exchange.getRequestURI().getRawQuery();
+		int from = city(network, parameter(query, "from"), network.getStartCity());
+		int to = city(network, parameter(query, "to"), network.getEndCity());
+		String k = parameter(query, "k");
+		int count;
+		try {
+			count = k == null ? DEFAULT_ALTERNATIVES : Integer.parseInt(k);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("k must be a number: " + k);
+		}
+		if (count < 1 || count > MAX_ALTERNATIVES)
+			throw new IllegalArgumentException("k must be between 1 and " + MAX_ALTERNATIVES + ": " + count);
+
+		CityGraph graph = network.getGraph();
+		List<TravelPath> routes = network.getAlternativeRoutes(from, to).next(count);
+		json.raw("{\"from\":").string(graph.getCityName(from)).raw(",\"to\":").string(graph.getCityName(to))
+				.raw(",\"routes\":[");
+		for (int r = 0; r < routes.size(); r++) {
+			int[] cities = routes.get(r).getCities();
+			json.raw(r > 0 ? ",{\"cost\":" : "{\"cost\":").number(routes.get(r).getCost()).raw(",\"path\":[");
+			for (int i = 0; i < cities.length; i++) {
+				if (i > 0)
+					json.raw(",");
+				json.string(graph.getCityName(cities[i]));
+			}
+			json.raw("]}");
+		}
+		send(exchange, 200, json.raw("]}"));
+	}
+
+	// /table: streamed in pieces, since it grows with the square of the city
+	// count
+	private void table(HttpExchange exchange, SolvedNetwork network, JsonBuffer json) throws IOException {
+		if (!network.hasTables())
+			throw new IllegalStateException("No cost table in " + network.getMode() + " mode");
+		CityGraph graph = network.getGraph();
+		int n = network.getCityCount();
+
+		exchange.sendResponseHeaders(200, 0); // Chunked
+		OutputStream body = exchange.getResponseBody();
+		json.raw("{\"cities\":[");
+		for (int i = 0; i < n; i++) {
+			if (i > 0)
+				json.raw(",");
+			json.string(graph.getCityName(i));
+		}
+		json.raw("],\"costs\":[");
+		for (int i = 0; i < n; i++) {
+			json.raw(i > 0 ? ",[" : "[");
+			for (int j = 0; j < n; j++) {
+				if (j > 0)
+					json.raw(",");
+				json.cost(network.getCost(i, j));
+			}
+			json.raw("]");
+			if (json.size() >= FLUSH_BYTES) {
+				json.writeTo(body);
+				json.reset();
+			}
+		}
+		json.raw("]}").writeTo(body);
+	}
+
+	// Id of the named city, or of the default city if name is null
+	private static int city(SolvedNetwork network, String name, String defaultName) {
+		String cityName = name != null ? name : defaultName;
+		int city = network.indexOf(cityName);
+		if (city == -1)
+			throw new UnknownCityException("Unknown city: " + cityName);
+		return city;
+	}
+
+	// Decoded value of a query parameter, or null if absent
+	static String parameter(String rawQuery, String name) {
+		if (rawQuery == null)
+			return null;
+		int start = 0;
+		while (start <= rawQuery.length()) {
+			int end = rawQuery.indexOf('&', start);
+			if (end == -1)
+				end = rawQuery.length();
+			int equals = rawQuery.indexOf('=', start);
+			if (equals != -1 && equals < end && equals - start == name.length()
+					&& rawQuery.startsWith(name, start))
+				return URLDecoder.decode(rawQuery.substring(equals + 1, end), StandardCharsets.UTF_8);
+			start = end + 1;
+		}
+		return null;
+	}
+
+	/*
+	 * A city name that is not in the network (404 rather than 400).
+	 */
+	private static final class UnknownCityException extends IllegalArgumentException {
+
+		private static final long serialVersionUID = 1L;
+
+		UnknownCityException(String message) {
+			super(message);
+		}
+	}
+
+	/*
+	 * Growable UTF-8 byte buffer with just the JSON writers the endpoints
+	 * need, plus a scratch array of city ids for paths. Reused across
+	 * requests through the pool.
+	 */
+	static final class JsonBuffer {
+
+		private byte[] bytes = new byte[4096];
+		private int size;
+		private int[] path = new int[64];
+
+		JsonBuffer reset() {
+			size = 0;
+			return this;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int capacity() {
+			return bytes.length;
+		}
+
+		// A scratch array of at least length ids
+		int[] path(int length) {
+			if (path.length < length)
+				path = new int[Math.max(length, path.length * 2)];
+			return path;
+		}
+
+		// Appends ASCII text as is
+		JsonBuffer raw(String ascii) {
+			int length = ascii.length();
+			ensure(length);
+			for (int i = 0; i < length; i++)
+				bytes[size++] = (byte) ascii.charAt(i);
+			return this;
+		}
+
+		JsonBuffer number(int value) {
+			ensure(11);
+			if (value < 0) {
+				if (value == Integer.MIN_VALUE)
+					return raw("-2147483648");
+				bytes[size++] = '-';
+				value = -value;
+			}
+			int digits = 1;
+			for (int rest = value / 10; rest > 0; rest /= 10)
+				digits++;
+			for (int i = size + digits - 1; i >= size; i--, value /= 10)
+				bytes[i] = (byte) ('0' + value % 10);
+			size += digits;
+			return this;
+		}
+
+		// A route cost or hop count, or null if unreachable (INF)
+		JsonBuffer cost(int cost) {
+			return cost == SolvedNetwork.INF ? raw("null") : number(cost);
+		}
+
+		// Appends a quoted, escaped string
+		JsonBuffer string(String value) {
+			int length = value.length();
+			ensure(length * 3 + 2);
+			bytes[size++] = '"';
+			for (int i = 0; i < length; i++) {
+				char c = value.charAt(i);
+				if (c == '"' || c == '\\') {
+					ensure(2 + (length - i) * 3);
+					bytes[size++] = '\\';
+					bytes[size++] = (byte) c;
+				} else if (c < 0x20) {
+					ensure(6 + (length - i) * 3);
+					bytes[size++] = '\\';
+					bytes[size++] = 'u';
+					bytes[size++] = '0';
+					bytes[size++] = '0';
+					bytes[size++] = (byte) Character.forDigit(c >> 4, 16);
+					bytes[size++] = (byte) Character.forDigit(c & 0xF, 16);
+				} else if (c < 0x80) {
+					bytes[size++] = (byte) c;
+				} else if (c < 0x800) {
+					bytes[size++] = (byte) (0xC0 | c >> 6);
+					bytes[size++] = (byte) (0x80 | c & 0x3F);
+				} else if (Character.isHighSurrogate(c) && i + 1 < length
+						&& Character.isLowSurrogate(value.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+					bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+					bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+					bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+				} else {
+					bytes[size++] = (byte) (0xE0 | c >> 12);
+					bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+					bytes[size++] = (byte) (0x80 | c & 0x3F);
+				}
+			}
+			bytes[size++] = '"';
+			return this;
+		}
+
+		// {"error":"message"}
+		JsonBuffer error(String message) {
+			return raw("{\"error\":").string(message).raw("}");
+		}
+
+		void writeTo(OutputStream out) throws IOException {
+			out.write(bytes, 0, size);
+		}
+
+		private void ensure(int extra) {
+			if (size + extra > bytes.length)
+				bytes = Arrays.copyOf(bytes, Math.max(size + extra, bytes.length * 2));
+		}
+	}
+}
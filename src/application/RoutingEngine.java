@@ -0,0 +1,231 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+  Headless entry point for loading and solving city networks, with no JavaFX
+  dependency, for the UI, command-line tools, servers and tests alike.
+
+  An engine only holds its configuration (DP mode, worker threads, table cell
+  width), so one instance can solve any number of independent networks, from
+  any number of threads. Every result is an immutable SolvedNetwork; updating
+  a connection cost returns a new SolvedNetwork built from a copy of the
+  tables, leaving the original untouched for threads still reading it.
+
+  The relaxation kernel (scalar or vector) is a JVM-wide setting of
+  BlockedFloydWarshall.
+
+  DpMode.ALT builds no tables either; instead it picks landmark cities and
+  measures their distances once per network, and those are saved in the
+  snapshot with the graph. DpMode.CH does the same with a contraction
+  hierarchy; after a cost update the hierarchy is built again from scratch.
+ */
+public final class RoutingEngine {
+
+	private final DpMode mode;
+	private final int threads;
+	private final boolean narrowTables;
+	private final int landmarkCount;
+
+	public static final int DEFAULT_LANDMARKS = 16;
+
+	// Blocked Floyd-Warshall with narrow tables
+	public RoutingEngine() {
+		this(DpMode.BLOCKED, Runtime.getRuntime().availableProcessors(), true);
+	}
+
+	// threads is only used by DpMode.PARALLEL; narrowTables allows 2-byte table
+	// cells when the values fit
+	public RoutingEngine(DpMode mode, int threads, boolean narrowTables) {
+		this(mode, threads, narrowTables, DEFAULT_LANDMARKS);
+	}
+
+	// landmarkCount is only used by DpMode.ALT
+	public RoutingEngine(DpMode mode, int threads, boolean narrowTables, int landmarkCount) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		if (landmarkCount <= 0)
+			throw new IllegalArgumentException("Landmark count must be positive: " + landmarkCount);
+		this.mode = mode;
+		this.threads = threads;
+		this.narrowTables = narrowTables;
+		this.landmarkCount = landmarkCount;
+	}
+
+	public DpMode getMode() {
+		return mode;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public int getLandmarkCount() {
+		return landmarkCount;
+	}
+
+	// True if the mode answers queries from the N x N tables
+	private boolean usesTables() {
+		return mode != DpMode.DIJKSTRA && mode != DpMode.ALT && mode != DpMode.CH;
+	}
+
+	// Parses an input file and solves it
+	public SolvedNetwork load(Path input) throws IOException {
+		NetworkFile file = NetworkFile.load(input);
+		return solve(file.getGraph(), file.getStartCity(), file.getEndCity());
+	}
+
+	// Loads a network from a snapshot written for the current contents of the
+	// input file. Returns null if the snapshot is missing, stale, or lacks the
+	// tables, landmarks or hierarchy this engine's mode needs. Tables solved in
+	// another mode are not reused: their previous cities may differ.
+	public SolvedNetwork readSnapshot(Path snapshot, Path input) throws IOException {
+		boolean withTables = usesTables();
+		boolean withLandmarks = mode == DpMode.ALT;
+		boolean withHierarchy = mode == DpMode.CH;
+		GraphSnapshot saved = GraphSnapshot.read(snapshot, GraphSnapshot.checksum(input), withTables,
+				withLandmarks, withHierarchy);
+		if (saved == null || (withTables && saved.getCostTable() == null))
+			return null;
+		if (withTables && saved.getMode() != mode) {
+			saved.getCostTable().close();
+			saved.getPreviousCity().close();
+			return null;
+		}
+		Landmarks landmarks = saved.getLandmarks();
+		if (withLandmarks && (landmarks == null
+				|| landmarks.getCount() != Math.min(landmarkCount, saved.getGraph().getCityCount())))
+			return null;
+		if (withHierarchy && saved.getHierarchy() == null)
+			return null;
+		return new SolvedNetwork(saved.getGraph(), saved.getStartCity(), saved.getEndCity(), mode,
+				saved.getCostTable(), saved.getPreviousCity(), landmarks, saved.getHierarchy(), 0);
+	}
+
+	// Saves a network (with its tables, landmarks or hierarchy, if any) as a
+	// snapshot of the input file
+	public void writeSnapshot(SolvedNetwork network, Path snapshot, Path input) throws IOException {
+		writeSnapshot(network, snapshot, GraphSnapshot.checksum(input));
+	}
+
+	// Same as writeSnapshot(network, snapshot, input) for an input file whose
+	// checksum (GraphSnapshot.checksum) the caller already has
+	public void writeSnapshot(SolvedNetwork network, Path snapshot, long inputChecksum) throws IOException {
+		new GraphSnapshot(network.getGraph(), network.getStartCity(), network.getEndCity(), network.costTable(),
+				network.previousCity(), network.getLandmarks(), network.getHierarchy(), network.getMode())
+				.write(snapshot, inputChecksum);
+	}
+
+	// Solves a graph with this engine's mode
+	public SolvedNetwork solve(CityGraph graph, String startCity, String endCity) {
+		if (mode == DpMode.DIJKSTRA)
+			return new SolvedNetwork(graph, startCity, endCity, mode, null, null, null, null, 0);
+		if (mode == DpMode.ALT)
+			return new SolvedNetwork(graph, startCity, endCity, mode, null, null,
+					Landmarks.select(graph, landmarkCount), null, 0);
+		if (mode == DpMode.CH)
+			return new SolvedNetwork(graph, startCity, endCity, mode, null, null, null,
+					ContractionHierarchy.build(graph), 0);
+
+		int n = graph.getCityCount();
+		// Costs in 2-byte cells if no route can cost 0xFFFF or more; previous
+		// cities in 2-byte cells below 65536 cities
+		IntMatrix cost = narrowTables ? IntMatrix.forValuesUpTo(n, graph.getMaxPathCost()) : new IntMatrix(n);
+		IntMatrix previous = narrowTables ? IntMatrix.forValuesUpTo(n, n - 1) : new IntMatrix(n);
+
+		// Cost to self is 0, direct connections cost petrol + hotel, everything
+		// else starts at INF; previous records where we came from
+		graph.fillDirectCostTable(cost, previous);
+
+		if (mode == DpMode.LEGACY) {
+			solveLegacy(cost, previous);
+		} else if (mode == DpMode.PARALLEL) {
+			try (ParallelFloydWarshall solver = new ParallelFloydWarshall(threads)) {
+				solver.solve(cost, previous);
+			}
+		} else {
+			BlockedFloydWarshall.solve(cost, previous);
+		}
+		return new SolvedNetwork(graph, startCity, endCity, mode, cost, previous, null, null, 0);
+	}
+
+	// Returns a copy of the network where the first connection from one city to
+	// another has new costs. The tables are copied and repaired incrementally;
+	// if route costs outgrow 2-byte cost cells the network is solved again.
+	// Landmark distances are measured again on the new graph, and a contraction
+	// hierarchy is rebuilt.
+	public SolvedNetwork withConnectionCost(SolvedNetwork network, String from, String to, int petrolCost,
+			int hotelCost) {
+		CityGraph oldGraph = network.getGraph();
+		int fromIdx = oldGraph.indexOf(from);
+		int toIdx = oldGraph.indexOf(to);
+		if (fromIdx == -1 || toIdx == -1)
+			throw new IllegalArgumentException("Unknown city: " + (fromIdx == -1 ? from : to));
+		CityGraph newGraph = oldGraph.withConnectionCost(fromIdx, toIdx, petrolCost, hotelCost);
+
+		IntMatrix oldCost = network.costTable();
+		if (oldCost == null) {
+			Landmarks landmarks = network.getLandmarks() != null ? network.getLandmarks().forGraph(newGraph) : null;
+			ContractionHierarchy hierarchy = network.getHierarchy() != null ? ContractionHierarchy.build(newGraph)
+					: null;
+			return new SolvedNetwork(newGraph, network.getStartCity(), network.getEndCity(), network.getMode(), null,
+					null, landmarks, hierarchy, 0);
+		}
+		if (oldCost.getCellBytes() < Integer.BYTES && newGraph.getMaxPathCost() > oldCost.getMaxValue()) {
+			SolvedNetwork rebuilt = solve(newGraph, network.getStartCity(), network.getEndCity());
+			return new SolvedNetwork(newGraph, network.getStartCity(), network.getEndCity(), rebuilt.getMode(),
+					rebuilt.costTable(), rebuilt.previousCity(), null, null,
+					countChangedCells(oldCost, rebuilt.costTable()), true);
+		}
+
+		IntMatrix cost = oldCost.copy();
+		IntMatrix previous = network.previousCity().copy();
+		int changed = IncrementalDpUpdater.apply(oldGraph, newGraph, fromIdx, toIdx, cost, previous);
+		return new SolvedNetwork(newGraph, network.getStartCity(), network.getEndCity(), network.getMode(), cost,
+				previous, null, null, changed);
+	}
+
+	// Number of cells that differ between two N x N tables of any cell widths
+	private static int countChangedCells(IntMatrix before, IntMatrix after) {
+		int n = before.size();
+		int[] beforeRow = new int[n];
+		int[] afterRow = new int[n];
+		int changed = 0;
+		for (int i = 0; i < n; i++) {
+			before.getRow(i, 0, beforeRow, 0, n);
+			after.getRow(i, 0, afterRow, 0, n);
+			for (int j = 0; j < n; j++) {
+				if (beforeRow[j] != afterRow[j])
+					changed++;
+			}
+		}
+		return changed;
+	}
+
+	// Original relaxation order, kept so results can be compared with the
+	// blocked engine. Tries to improve the cost from i to j via an intermediate
+	// city k, with k as the innermost loop.
+	private static void solveLegacy(IntMatrix cost, IntMatrix previous) {
+		final int INF = Integer.MAX_VALUE;
+		int n = cost.size();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i != j) {
+					for (int k = 0; k < n; k++) {
+						// If path i -> k and k -> j exists
+						if (k != i && k != j && cost.get(i, k) != INF && cost.get(k, j) != INF) {
+							int newCost = BlockedFloydWarshall.addSaturated(cost.get(i, k), cost.get(k, j));
+							// Update cost if a cheaper path is found
+							if (newCost < cost.get(i, j)) {
+								cost.set(i, j, newCost);
+								previous.set(i, j, previous.get(k, j)); // Update the previous city on the
+																		// new shortest path
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+}
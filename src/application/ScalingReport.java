@@ -0,0 +1,59 @@
+package application;
+
+/*
+  Command-line report comparing the serial blocked engine with the fork/join
+  engine on generated graphs.
+
+  Usage: java -XX:MaxDirectMemorySize=4g application.ScalingReport [maxThreads] [sizes...]
+  Defaults to all available cores and 1000 2000 4000 8000 cities. Each
+  parallel run is checked against the serial result bit for bit.
+ */
+public class ScalingReport {
+
+	private static final int AVG_DEGREE = 8;
+	private static final int MAX_COST = 100;
+
+	public static void main(String[] args) {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int[] sizes = { 1000, 2000, 4000, 8000 };
+		if (args.length > 1) {
+			sizes = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++)
+				sizes[i - 1] = Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%8s %8s %12s %9s %10s%n", "cities", "threads", "time (ms)", "speedup", "identical");
+		for (int n : sizes) {
+			CityGraph graph = CityGraph.fromCities(GraphGenerator.random(n, AVG_DEGREE, MAX_COST, n));
+
+			// Serial baseline
+			try (IntMatrix serialCost = new IntMatrix(n); IntMatrix serialPrev = new IntMatrix(n)) {
+				graph.fillDirectCostTable(serialCost, serialPrev);
+				long start = System.nanoTime();
+				BlockedFloydWarshall.solve(serialCost, serialPrev);
+				long serialNanos = System.nanoTime() - start;
+				System.out.printf("%8d %8s %12.1f %9s %10s%n", n, "serial", serialNanos / 1e6, "1.00", "-");
+
+				for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+					try (IntMatrix cost = new IntMatrix(n); IntMatrix prev = new IntMatrix(n);
+							ParallelFloydWarshall solver = new ParallelFloydWarshall(threads)) {
+						graph.fillDirectCostTable(cost, prev);
+						start = System.nanoTime();
+						solver.solve(cost, prev);
+						long nanos = System.nanoTime() - start;
+						boolean identical = cost.contentEquals(serialCost) && prev.contentEquals(serialPrev);
+						System.out.printf("%8d %8d %12.1f %9.2f %10s%n", n, threads, nanos / 1e6,
+								(double) serialNanos / nanos, identical ? "yes" : "NO");
+					}
+				}
+			}
+		}
+	}
+
+	// Doubles the thread count, always finishing with maxThreads itself
+	private static int nextThreadCount(int threads, int maxThreads) {
+		if (threads == maxThreads)
+			return maxThreads + 1;
+		return Math.min(threads * 2, maxThreads);
+	}
+}
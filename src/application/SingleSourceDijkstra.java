@@ -0,0 +1,148 @@
+package application;
+
+/*
+  Single-source minimum cost search (Dijkstra) for one start -> end query.
+
+  Runs directly on the CSR arrays of a CityGraph, using the total
+  (petrol + hotel) cost of each connection as its weight. Only two
+  length-N arrays are kept (cost and previous city), instead of the N x N
+  tables built by Floyd-Warshall. A search stops as soon as the target city
+  is settled. Arrays are reused between runs; a run counter marks which
+  entries belong to the current search, so nothing is cleared up front.
+
+  Given Landmarks, a search towards a target becomes goal-directed (ALT):
+  cities are queued by cost so far plus the landmark lower bound on the
+  cost left, so the search settles mostly cities in the target's direction.
+  The bound is consistent, so every settled city's cost is still exact and
+  settled cities can serve later queries from the same source.
+ */
+public class SingleSourceDijkstra {
+
+	public static final int INF = Integer.MAX_VALUE; // Unreachable marker
+
+	private final int cityCount;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+
+	private final int[] cost; // Best known cost from the source
+	private final int[] previous; // City before each city on the best path
+	private final int[] reachedInRun; // Run number in which cost/previous were last written
+	private final int[] settledInRun; // Run number in which the city was settled
+	private final IntBinaryHeap queue;
+	private final Landmarks landmarks; // null for plain Dijkstra
+	private final int[] estimate; // Lower bound from each reached city to the target
+
+	private int run;
+	private int source = -1;
+	private int settledCount;
+
+	public SingleSourceDijkstra(CityGraph graph) {
+		this(graph, null);
+	}
+
+	// Search that is goal-directed by the landmarks when run towards a target
+	public SingleSourceDijkstra(CityGraph graph, Landmarks landmarks) {
+		this.cityCount = graph.getCityCount();
+		this.offsets = graph.offsets();
+		this.targets = graph.targets();
+		this.weights = graph.totalCosts();
+		this.cost = new int[cityCount];
+		this.previous = new int[cityCount];
+		this.reachedInRun = new int[cityCount];
+		this.settledInRun = new int[cityCount];
+		this.queue = new IntBinaryHeap(cityCount);
+		this.landmarks = landmarks;
+		this.estimate = landmarks != null ? new int[cityCount] : null;
+	}
+
+	// Runs the search from source. Stops once target is settled; pass -1 to
+	// settle every reachable city.
+	public void run(int source, int target) {
+		run(source, target, null, null);
+	}
+
+	// Same as run(source, target), but never enters a city flagged in
+	// blockedCities nor uses a connection flagged in blockedEdges (indexed by
+	// CSR edge). Either array may be null.
+	public void run(int source, int target, boolean[] blockedCities, boolean[] blockedEdges) {
+		run++;
+		this.source = source;
+		settledCount = 0;
+		queue.clear();
+		boolean directed = landmarks != null && target != -1;
+
+		reach(source, 0, -1);
+		if (directed) {
+			estimate[source] = landmarks.estimate(source, target);
+			if (estimate[source] == INF)
+				return; // Target unreachable
+		}
+		queue.insertOrDecrease(source, directed ? estimate[source] : 0);
+
+		while (!queue.isEmpty()) {
+			int u = queue.poll();
+			settledInRun[u] = run;
+			settledCount++;
+			if (u == target)
+				return;
+
+			int costU = cost[u];
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int v = targets[e];
+				if (settledInRun[v] == run || (blockedEdges != null && blockedEdges[e])
+						|| (blockedCities != null && blockedCities[v]))
+					continue;
+				int newCost = costU + weights[e];
+				if (reachedInRun[v] != run) {
+					if (directed) {
+						estimate[v] = landmarks.estimate(v, target);
+						if (estimate[v] == INF) {
+							reach(v, INF, -1); // Cannot lead to the target; never queued
+							continue;
+						}
+					}
+				} else if (newCost >= cost[v] || (directed && estimate[v] == INF)) {
+					continue; // No better, or pruned above: a pruned city is never queued this run
+				}
+				reach(v, newCost, u);
+				queue.insertOrDecrease(v, directed ? newCost + estimate[v] : newCost);
+			}
+		}
+	}
+
+	private void reach(int city, int newCost, int from) {
+		cost[city] = newCost;
+		previous[city] = from;
+		reachedInRun[city] = run;
+	}
+
+	// Source city of the last run, or -1 before the first run
+	public int getSource() {
+		return source;
+	}
+
+	// True if the city's cost is final for the last run
+	public boolean isSettled(int city) {
+		return source != -1 && settledInRun[city] == run;
+	}
+
+	// Minimum cost from the source, or INF if the city was not reached
+	public int getCostTo(int city) {
+		return settledInRun[city] == run ? cost[city] : INF;
+	}
+
+	// City before the given city on the best path, or -1 for the source
+	public int getPreviousCity(int city) {
+		return previous[city];
+	}
+
+	// Number of cities settled by the last run
+	public int getSettledCount() {
+		return settledCount;
+	}
+
+	public int getCityCount() {
+		return cityCount;
+	}
+}
@@ -0,0 +1,399 @@
+package application;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+  Immutable result of solving one city network with a RoutingEngine: the
+  graph, the start and end cities read with it and, in the all-pairs modes,
+  the minimum cost and previous-city tables (or, in DpMode.ALT, the landmark
+  distances, and in DpMode.CH, the contraction hierarchy).
+
+  Nothing here changes after construction, so one instance can be queried
+  from any number of threads at once. In DpMode.DIJKSTRA, DpMode.ALT and
+  DpMode.CH there are no tables and every query runs a search. A query
+  borrows a search, with its O(N) buffers, from a small pool kept by the
+  network and hands it back when done, so searches are reused whichever
+  thread runs the next query (a new virtual thread per request, say) and are
+  freed with the network. Updates never modify a network: RoutingEngine
+  returns a new one (copy-on-write), so readers of the old one are
+  unaffected.
+
+  The tables are off-heap. close() frees them immediately, and must only be
+  called once no other thread can still query this network; a network that
+  is simply dropped is freed by the garbage collector.
+ */
+public final class SolvedNetwork implements AutoCloseable {
+
+	public static final int INF = Integer.MAX_VALUE; // Unreachable marker
+
+	private static final AtomicLong VERSIONS = new AtomicLong();
+	// Idle searches kept per network; more are created while more queries run
+	// at once, and dropped again when they are handed back
+	private static final int MAX_IDLE_SEARCHES = Runtime.getRuntime().availableProcessors();
+
+	private final CityGraph graph;
+	private final String startCity;
+	private final String endCity;
+	private final DpMode mode;
+	private final IntMatrix costTable; // null in the search modes
+	private final IntMatrix previousCity; // null in the search modes
+	private final Landmarks landmarks; // Only in DpMode.ALT
+	private final ContractionHierarchy hierarchy; // Only in DpMode.CH
+	private final int changedCells;
+	private final boolean tablesRebuilt;
+	private final long version;
+	private final Pool<SingleSourceDijkstra> searches; // Only in the search modes without a hierarchy
+	private final Pool<ContractionHierarchy.Query> hierarchyQueries; // Only in DpMode.CH
+	private final Pool<ParetoRouter> paretoRouters;
+
+	SolvedNetwork(CityGraph graph, String startCity, String endCity, DpMode mode, IntMatrix costTable,
+			IntMatrix previousCity, Landmarks landmarks, ContractionHierarchy hierarchy, int changedCells) {
+		this(graph, startCity, endCity, mode, costTable, previousCity, landmarks, hierarchy, changedCells, false);
+	}
+
+	SolvedNetwork(CityGraph graph, String startCity, String endCity, DpMode mode, IntMatrix costTable,
+			IntMatrix previousCity, Landmarks landmarks, ContractionHierarchy hierarchy, int changedCells,
+			boolean tablesRebuilt) {
+		this.graph = graph;
+		this.startCity = startCity;
+		this.endCity = endCity;
+		this.mode = mode;
+		this.costTable = costTable;
+		this.previousCity = previousCity;
+		this.landmarks = landmarks;
+		this.hierarchy = hierarchy;
+		this.changedCells = changedCells;
+		this.tablesRebuilt = tablesRebuilt;
+		this.version = VERSIONS.incrementAndGet();
+		this.searches = costTable == null && hierarchy == null
+				? new Pool<>(() -> new SingleSourceDijkstra(graph, landmarks))
+				: null;
+		this.hierarchyQueries = hierarchy != null ? new Pool<>(hierarchy::newQuery) : null;
+		this.paretoRouters = new Pool<>(() -> new ParetoRouter(graph));
+	}
+
+	public CityGraph getGraph() {
+		return graph;
+	}
+
+	public int getCityCount() {
+		return graph.getCityCount();
+	}
+
+	// Start city named in the input file
+	public String getStartCity() {
+		return startCity;
+	}
+
+	// End city named in the input file
+	public String getEndCity() {
+		return endCity;
+	}
+
+	// Engine that produced the tables
+	public DpMode getMode() {
+		return mode;
+	}
+
+	// True if the N x N tables were built (every mode except DIJKSTRA, ALT and
+	// CH)
+	public boolean hasTables() {
+		return costTable != null;
+	}
+
+	// Landmark distances guiding the searches in DpMode.ALT, otherwise null
+	public Landmarks getLandmarks() {
+		return landmarks;
+	}
+
+	// Contraction hierarchy answering the queries in DpMode.CH, otherwise null
+	public ContractionHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	// Number of cost cells that differ from the network this one was updated
+	// from, 0 for a freshly solved network
+	public int getChangedCells() {
+		return changedCells;
+	}
+
+	// True if the update that produced this network solved the tables again
+	// from scratch instead of repairing a copy
+	public boolean wereTablesRebuilt() {
+		return tablesRebuilt;
+	}
+
+	// Version of the graph and tables: unique to this network and larger than
+	// that of every network created before it, including the one it was
+	// updated from
+	public long getVersion() {
+		return version;
+	}
+
+	// Returns the id of the city with the given name (case-insensitive), or -1
+	public int indexOf(String cityName) {
+		return graph.indexOf(cityName);
+	}
+
+	// Minimum cost from one city id to another, or INF if unreachable
+	public int getCost(int from, int to) {
+		if (costTable != null)
+			return costTable.get(from, to);
+		if (hierarchy != null) {
+			ContractionHierarchy.Query query = hierarchyQueries.borrow();
+			try {
+				return cost(from, to, null, query);
+			} finally {
+				hierarchyQueries.release(query);
+			}
+		}
+		SingleSourceDijkstra search = searches.borrow();
+		try {
+			return cost(from, to, search, null);
+		} finally {
+			searches.release(search);
+		}
+	}
+
+	// City visited just before 'to' on the best route from 'from'. Only
+	// meaningful when getCost(from, to) is not INF and from != to.
+	public int getPreviousCity(int from, int to) {
+		if (previousCity != null)
+			return previousCity.get(from, to);
+		if (hierarchy != null) {
+			ContractionHierarchy.Query query = hierarchyQueries.borrow();
+			try {
+				return previous(from, to, null, query);
+			} finally {
+				hierarchyQueries.release(query);
+			}
+		}
+		SingleSourceDijkstra search = searches.borrow();
+		try {
+			return previous(from, to, search, null);
+		} finally {
+			searches.release(search);
+		}
+	}
+
+	// Returns the optimal path from start to end as "A -> B -> C", or
+	// "No path exists" if either city is unknown or unreachable
+	public String getOptimalPath(String start, String end) {
+		int startIdx = graph.indexOf(start);
+		int endIdx = graph.indexOf(end);
+		if (startIdx == -1 || endIdx == -1)
+			return "No path exists";
+
+		int[] path = new int[Math.min(graph.getCityCount(), 64)];
+		int hops = getPath(startIdx, endIdx, path);
+		if (hops >= path.length) {
+			path = new int[hops + 1];
+			getPath(startIdx, endIdx, path);
+		}
+		return hops == -1 ? "No path exists" : formatPath(path, 0, hops + 1);
+	}
+
+	// Writes the city ids of the best path from one city to another into
+	// path[0 .. hops], start first, and returns the number of hops (0 from a
+	// city to itself), or -1 if 'to' is unreachable. Nothing is allocated. If
+	// the buffer is too short the hop count is still returned but the buffer's
+	// contents are undefined; a buffer of getCityCount() ids always suffices.
+	public int getPath(int from, int to, int[] path) {
+		return getPath(from, to, path, 0);
+	}
+
+	// Same as getPath(from, to, path), writing at path[offset] onwards
+	public int getPath(int from, int to, int[] path, int offset) {
+		// One search answers the whole walk back
+		SingleSourceDijkstra search = searches != null ? searches.borrow() : null;
+		ContractionHierarchy.Query query = hierarchyQueries != null ? hierarchyQueries.borrow() : null;
+		try {
+			return getPath(from, to, path, offset, search, query);
+		} finally {
+			if (search != null)
+				searches.release(search);
+			if (query != null)
+				hierarchyQueries.release(query);
+		}
+	}
+
+	private int getPath(int from, int to, int[] path, int offset, SingleSourceDijkstra search,
+			ContractionHierarchy.Query query) {
+		if (cost(from, to, search, query) == INF)
+			return -1;
+		// Walk back from the end, writing the cities in reverse while they fit
+		int room = path.length - offset;
+		int hops = 0;
+		int city = to;
+		if (room > 0)
+			path[offset] = city;
+		while (city != from) {
+			city = previous(from, city, search, query);
+			hops++;
+			if (hops < room)
+				path[offset + hops] = city;
+			else if (hops > graph.getCityCount())
+				throw new IllegalStateException("Previous-city table has a cycle from " + from + " to " + to);
+		}
+		if (hops < room) {
+			for (int i = offset, j = offset + hops; i < j; i++, j--) {
+				int swap = path[i];
+				path[i] = path[j];
+				path[j] = swap;
+			}
+		}
+		return hops;
+	}
+
+	// Number of hops on the best path from one city to another, or -1 if 'to'
+	// is unreachable
+	public int getHopCount(int from, int to) {
+		SingleSourceDijkstra search = searches != null ? searches.borrow() : null;
+		ContractionHierarchy.Query query = hierarchyQueries != null ? hierarchyQueries.borrow() : null;
+		try {
+			if (cost(from, to, search, query) == INF)
+				return -1;
+			int hops = 0;
+			for (int city = to; city != from; hops++) {
+				city = previous(from, city, search, query);
+				if (hops > graph.getCityCount())
+					throw new IllegalStateException("Previous-city table has a cycle from " + from + " to " + to);
+			}
+			return hops;
+		} finally {
+			if (search != null)
+				searches.release(search);
+			if (query != null)
+				hierarchyQueries.release(query);
+		}
+	}
+
+	// Formats path[offset .. offset + count) as "A -> B -> C"
+	public String formatPath(int[] path, int offset, int count) {
+		StringBuilder pathBuilder = new StringBuilder();
+		for (int i = offset; i < offset + count; i++) {
+			if (i > offset)
+				pathBuilder.append(" -> ");
+			pathBuilder.append(graph.getCityName(path[i]));
+		}
+		return pathBuilder.toString();
+	}
+
+	// Routes between two city ids on which petrol and hotel costs trade off
+	// (the Pareto front), by increasing petrol cost; only routes with a hotel
+	// cost of at most maxHotel are listed
+	public List<TravelPath> getParetoRoutes(int from, int to, int maxHotel) {
+		ParetoRouter router = paretoRouters.borrow();
+		try {
+			return router.solve(from, to, maxHotel);
+		} finally {
+			paretoRouters.release(router);
+		}
+	}
+
+	// Lazy generator of loopless routes between two city ids, cheapest first
+	public KShortestPaths getAlternativeRoutes(int from, int to) {
+		return new KShortestPaths(graph, from, to);
+	}
+
+	// Route generator from the start city to the end city, or null if either
+	// is not a city of the graph
+	public KShortestPaths getAlternativeRoutes() {
+		int start = graph.indexOf(startCity);
+		int end = graph.indexOf(endCity);
+		if (start == -1 || end == -1)
+			return null;
+		return getAlternativeRoutes(start, end);
+	}
+
+	// Tables for the engine and snapshots; null in the search modes
+	IntMatrix costTable() {
+		return costTable;
+	}
+
+	IntMatrix previousCity() {
+		return previousCity;
+	}
+
+	// Frees the off-heap tables. See the class comment for when this is safe.
+	@Override
+	public void close() {
+		if (costTable != null) {
+			costTable.close();
+			previousCity.close();
+		}
+	}
+
+	// Cost from the tables, or from the borrowed search or hierarchy query
+	// (whichever this network uses)
+	private int cost(int from, int to, SingleSourceDijkstra search, ContractionHierarchy.Query query) {
+		if (costTable != null)
+			return costTable.get(from, to);
+		if (query != null)
+			return answer(query, from, to).getCostTo(to);
+		return answer(search, from, to).getCostTo(to);
+	}
+
+	// Previous city from the tables, or from the borrowed search or query
+	private int previous(int from, int to, SingleSourceDijkstra search, ContractionHierarchy.Query query) {
+		if (previousCity != null)
+			return previousCity.get(from, to);
+		if (query != null)
+			return answer(query, from, to).getPreviousCity(to);
+		return answer(search, from, to).getPreviousCity(to);
+	}
+
+	// The search, run from 'from' until 'to' is settled unless its last run
+	// already did
+	private static SingleSourceDijkstra answer(SingleSourceDijkstra search, int from, int to) {
+		if (search.getSource() != from || !search.isSettled(to))
+			search.run(from, to);
+		return search;
+	}
+
+	// The hierarchy query, run from 'from' to 'to' unless its last path
+	// already passes through 'to'. Walking back along a path therefore costs
+	// one query, not one per city.
+	private static ContractionHierarchy.Query answer(ContractionHierarchy.Query query, int from, int to) {
+		if (!query.answers(from, to))
+			query.run(from, to);
+		return query;
+	}
+
+	/*
+	 * Idle search objects of one kind, most recently handed back first so a
+	 * query tends to find the buffers, and the source, of the previous one.
+	 * Holds at most about MAX_IDLE_SEARCHES objects.
+	 */
+	private static final class Pool<T> {
+
+		private final ConcurrentLinkedDeque<T> idle = new ConcurrentLinkedDeque<>();
+		private final AtomicInteger idleCount = new AtomicInteger();
+		private final Supplier<T> factory;
+
+		Pool(Supplier<T> factory) {
+			this.factory = factory;
+		}
+
+		// An idle object, or a new one if none is idle
+		T borrow() {
+			T item = idle.pollFirst();
+			if (item == null)
+				return factory.get();
+			idleCount.decrementAndGet();
+			return item;
+		}
+
+		// Hands an object back once the caller is done with it
+		void release(T item) {
+			if (idleCount.incrementAndGet() <= MAX_IDLE_SEARCHES)
+				idle.offerFirst(item);
+			else
+				idleCount.decrementAndGet();
+		}
+	}
+}
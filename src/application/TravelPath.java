@@ -8,6 +8,10 @@ public class TravelPath {
 
 	private String path; // The full route as a string (for example, "Start -> B -> E -> J -> End")
 	private int cost; // The total cost of that path (petrol + hotel combined)
+	private int[] cities; // City ids along the route, when built from a CityGraph
+	private CityGraph graph; // Graph used to name the cities on demand
+	private int petrolCost = -1; // Petrol part of the cost, -1 if not known
+	private int hotelCost = -1; // Hotel part of the cost, -1 if not known
 
 	/*
 	 * Constructor to initialize a travel path with its string path and total cost.
@@ -17,13 +21,48 @@ public class TravelPath {
 		this.cost = cost;
 	}
 
+	/*
+	 * Constructor for a route found on the city graph. The display string is only
+	 * built the first time getPath() is called.
+	 */
+	public TravelPath(CityGraph graph, int[] cities, int cost) {
+		this.graph = graph;
+		this.cities = cities;
+		this.cost = cost;
+	}
+
+	/*
+	 * Constructor for a route whose petrol and hotel costs are kept apart, as
+	 * found by the Pareto search.
+	 */
+	public TravelPath(CityGraph graph, int[] cities, int petrolCost, int hotelCost) {
+		this(graph, cities, petrolCost + hotelCost);
+		this.petrolCost = petrolCost;
+		this.hotelCost = hotelCost;
+	}
+
 	/*
 	 * Returns the travel path string.
 	 */
 	public String getPath() {
+		if (path == null && cities != null) {
+			StringBuilder builder = new StringBuilder(graph.getCityName(cities[0]));
+			for (int i = 1; i < cities.length; i++) {
+				builder.append(" -> ").append(graph.getCityName(cities[i]));
+			}
+			path = builder.toString();
+		}
 		return path;
 	}
 
+	/*
+	 * Returns the city ids along the route, or null if the path was given as a
+	 * string.
+	 */
+	public int[] getCities() {
+		return cities;
+	}
+
 	/*
 	 * Returns the total cost of the path.
 	 */
@@ -31,10 +70,24 @@ public class TravelPath {
 		return cost;
 	}
 
+	/*
+	 * Returns the petrol part of the cost, or -1 if only the total is known.
+	 */
+	public int getPetrolCost() {
+		return petrolCost;
+	}
+
+	/*
+	 * Returns the hotel part of the cost, or -1 if only the total is known.
+	 */
+	public int getHotelCost() {
+		return hotelCost;
+	}
+
 	/*
 	 * Returns a string representation of this TravelPath
 	 */
 	public String toString() {
-		return "Path: " + path + ", Cost: " + cost;
+		return "Path: " + getPath() + ", Cost: " + cost;
 	}
 }
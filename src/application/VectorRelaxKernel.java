@@ -0,0 +1,78 @@
+package application;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+  SIMD version of BlockedFloydWarshall.relax() built on the Vector API.
+
+  For one (k, i) pair the row segment ij[i][*] is updated a full vector at a
+  time: the broadcast cost[i][k] is added to cost[k][*], the sums are compared
+  with the current costs, and both the costs and the previous cities are
+  blended in under the resulting mask. Costs are non-negative, so an INF
+  entry of cost[k][*] or any sum that overflows shows up as a negative sum;
+  masking those lanes out matches the scalar loop's INF check and saturating
+  add, and the results are identical to the scalar kernel.
+
+  Only loaded when the jdk.incubator.vector module is present (see
+  DpKernel.isAvailable()).
+ */
+final class VectorRelaxKernel {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+	private static final int INF = BlockedFloydWarshall.INF;
+
+	private VectorRelaxKernel() {
+	}
+
+	// Same contract as BlockedFloydWarshall.relax()
+	static void relax(BlockedFloydWarshall.Tile ik, BlockedFloydWarshall.Tile kj, BlockedFloydWarshall.Tile ij) {
+		int stride = ij.stride;
+		int kCount = kj.rows;
+		int rows = ij.rows;
+		int columns = ij.columns;
+		int vectorColumns = SPECIES.loopBound(columns);
+		int[] ikCost = ik.cost;
+		int[] kjCost = kj.cost;
+		int[] kjPrev = kj.prev;
+		int[] ijCost = ij.cost;
+		int[] ijPrev = ij.prev;
+		for (int k = 0; k < kCount; k++) {
+			int kRow = k * stride;
+			for (int i = 0; i < rows; i++) {
+				int iRow = i * stride;
+				int costIK = ikCost[iRow + k];
+				if (costIK == INF)
+					continue;
+				IntVector viaK = IntVector.broadcast(SPECIES, costIK);
+				int j = 0;
+				for (; j < vectorColumns; j += SPECIES.length()) {
+					IntVector newCost = viaK.add(IntVector.fromArray(SPECIES, kjCost, kRow + j));
+					IntVector oldCost = IntVector.fromArray(SPECIES, ijCost, iRow + j);
+					VectorMask<Integer> better = newCost.compare(VectorOperators.LT, oldCost)
+							.and(newCost.compare(VectorOperators.GE, 0));
+					if (!better.anyTrue())
+						continue;
+					oldCost.blend(newCost, better).intoArray(ijCost, iRow + j);
+					IntVector.fromArray(SPECIES, ijPrev, iRow + j)
+							.blend(IntVector.fromArray(SPECIES, kjPrev, kRow + j), better)
+							.intoArray(ijPrev, iRow + j);
+				}
+
+				// Scalar tail for the last columns
+				for (; j < columns; j++) {
+					int costKJ = kjCost[kRow + j];
+					if (costKJ == INF)
+						continue;
+					int newCost = BlockedFloydWarshall.addSaturated(costIK, costKJ);
+					if (newCost < ijCost[iRow + j]) {
+						ijCost[iRow + j] = newCost;
+						ijPrev[iRow + j] = kjPrev[kRow + j];
+					}
+				}
+			}
+		}
+	}
+}
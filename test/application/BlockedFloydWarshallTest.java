@@ -0,0 +1,106 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/*
+  Checks the blocked and parallel engines, with each relaxation kernel,
+  against the textbook solveReference on generated networks whose sizes are
+  not multiples of the block size. Only the costs are guaranteed to match the
+  reference: between routes of equal cost the engines may keep different
+  previous cities, so each previous-city chain is only checked to be a route
+  of the cost in the table.
+ */
+class BlockedFloydWarshallTest {
+
+	private final DpKernel defaultKernel = BlockedFloydWarshall.getKernel();
+
+	@AfterEach
+	void restoreKernel() {
+		BlockedFloydWarshall.setKernel(defaultKernel);
+	}
+
+	@ParameterizedTest
+	@EnumSource(DpKernel.class)
+	void blockedMatchesReference(DpKernel kernel) {
+		assumeTrue(kernel.isAvailable(), kernel + " kernel is not available");
+		BlockedFloydWarshall.setKernel(kernel);
+		for (City[] cities : networks()) {
+			CityGraph graph = CityGraph.fromCities(cities);
+			for (int blockSize : new int[] { 16, BlockedFloydWarshall.DEFAULT_BLOCK_SIZE }) {
+				for (boolean narrow : new boolean[] { false, true }) {
+					checkAgainstReference(graph, narrow, kernel + " blocked, block " + blockSize,
+							(cost, prev) -> BlockedFloydWarshall.solve(cost, prev, blockSize));
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(DpKernel.class)
+	void parallelMatchesReference(DpKernel kernel) {
+		assumeTrue(kernel.isAvailable(), kernel + " kernel is not available");
+		BlockedFloydWarshall.setKernel(kernel);
+		try (ParallelFloydWarshall solver = new ParallelFloydWarshall(2, 16)) {
+			for (City[] cities : networks()) {
+				CityGraph graph = CityGraph.fromCities(cities);
+				for (boolean narrow : new boolean[] { false, true })
+					checkAgainstReference(graph, narrow, kernel + " parallel", solver::solve);
+			}
+		}
+	}
+
+	private static City[][] networks() {
+		// Small costs on the last network make many routes tie
+		return new City[][] { GraphGenerator.random(150, 3, 100, 1), GraphGenerator.grid(9, 13, 100, 2),
+				GraphGenerator.geometric(100, 4, 100, 3), GraphGenerator.scaleFree(130, 2, 100, 4),
+				GraphGenerator.random(300, 3, 5, 5) };
+	}
+
+	private static void checkAgainstReference(CityGraph graph, boolean narrow, String engine,
+			BiConsumer<IntMatrix, IntMatrix> solver) {
+		int n = graph.getCityCount();
+		try (IntMatrix expectedCost = new IntMatrix(n); IntMatrix expectedPrev = new IntMatrix(n);
+				IntMatrix cost = narrow ? IntMatrix.forValuesUpTo(n, graph.getMaxPathCost()) : new IntMatrix(n);
+				IntMatrix prev = narrow ? IntMatrix.forValuesUpTo(n, n - 1) : new IntMatrix(n)) {
+			graph.fillDirectCostTable(expectedCost, expectedPrev);
+			BlockedFloydWarshall.solveReference(expectedCost, expectedPrev);
+			graph.fillDirectCostTable(cost, prev);
+			solver.accept(cost, prev);
+			String label = engine + (narrow ? ", narrow cells" : "") + " on " + n + " cities";
+			assertTrue(cost.contentEquals(expectedCost), label + ": costs differ");
+			checkPreviousCities(graph, cost, prev, label);
+		}
+	}
+
+	// Every previous-city chain must lead back to its start city through direct
+	// connections whose cheapest costs add up to the table's cost
+	private static void checkPreviousCities(CityGraph graph, IntMatrix cost, IntMatrix prev, String label) {
+		int n = graph.getCityCount();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j || cost.get(i, j) == BlockedFloydWarshall.INF)
+					continue;
+				long total = 0;
+				int hops = 0;
+				for (int city = j; city != i; hops++) {
+					assertTrue(hops < n, label + ": previous cities from " + i + " to " + j + " form a cycle");
+					int before = prev.get(i, city);
+					int step = graph.getCheapestCost(before, city);
+					assertTrue(step != Integer.MAX_VALUE,
+							label + ": no connection from " + before + " to " + city + " on route " + i + " -> " + j);
+					total += step;
+					city = before;
+				}
+				assertEquals(cost.get(i, j), total, label + ": route " + i + " -> " + j + " has another cost");
+			}
+		}
+	}
+}
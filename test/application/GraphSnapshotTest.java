@@ -0,0 +1,38 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GraphSnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	// Tables solved in one mode must not be served to an engine in another:
+	// LEGACY and BLOCKED keep different previous cities on this network
+	@Test
+	void tablesFromAnotherModeAreRejected() throws IOException {
+		Path input = dir.resolve("network.txt");
+		Path snapshot = dir.resolve("network.snapshot");
+		City[] cities = GraphGenerator.random(60, 2, 100, 1);
+		GraphGenerator.writeNetworkFile(input, cities, GraphGenerator.cityName(0), GraphGenerator.cityName(59));
+
+		RoutingEngine blocked = new RoutingEngine(DpMode.BLOCKED, 1, true);
+		try (SolvedNetwork network = blocked.load(input)) {
+			blocked.writeSnapshot(network, snapshot, input);
+		}
+
+		assertNull(new RoutingEngine(DpMode.LEGACY, 1, true).readSnapshot(snapshot, input));
+		try (SolvedNetwork reloaded = blocked.readSnapshot(snapshot, input)) {
+			assertNotNull(reloaded);
+			assertEquals(DpMode.BLOCKED, reloaded.getMode());
+		}
+	}
+}
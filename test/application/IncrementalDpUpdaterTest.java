@@ -0,0 +1,76 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IncrementalDpUpdaterTest {
+
+	private static final CityGraph GRAPH = CityGraph.fromCities(GraphGenerator.random(60, 3, 20, 11));
+
+	// A connection made cheaper than any route between its cities
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 7, 23, 59 })
+	void decreaseMatchesFullSolve(int city) {
+		checkRepair(city, 1, 0);
+	}
+
+	// A connection made more expensive, moving routes off it
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 7, 23, 59 })
+	void increaseMatchesFullSolve(int city) {
+		checkRepair(city, 500, 500);
+	}
+
+	// Changes the first connection out of 'city' and compares the repaired
+	// tables with tables solved from scratch on the new graph
+	private static void checkRepair(int city, int petrolCost, int hotelCost) {
+		RoutingEngine engine = new RoutingEngine(DpMode.BLOCKED, 1, false);
+		String from = GRAPH.getCityName(city);
+		String to = GRAPH.getCityName(GRAPH.getTarget(GRAPH.firstEdge(city)));
+		try (SolvedNetwork network = engine.solve(GRAPH, null, null);
+				SolvedNetwork repaired = engine.withConnectionCost(network, from, to, petrolCost, hotelCost);
+				SolvedNetwork solved = engine.solve(repaired.getGraph(), null, null)) {
+			assertFalse(repaired.wereTablesRebuilt());
+			int n = GRAPH.getCityCount();
+			int changed = 0;
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					assertEquals(solved.getCost(i, j), repaired.getCost(i, j), "Cost " + i + " -> " + j);
+					if (network.getCost(i, j) != solved.getCost(i, j))
+						changed++;
+				}
+			}
+			assertEquals(changed, repaired.getChangedCells());
+			checkPreviousCities(repaired);
+		}
+	}
+
+	// Every previous-city chain must lead back to its start city through direct
+	// connections whose cheapest costs add up to the table's cost
+	private static void checkPreviousCities(SolvedNetwork network) {
+		CityGraph graph = network.getGraph();
+		int n = graph.getCityCount();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j || network.getCost(i, j) == SolvedNetwork.INF)
+					continue;
+				long total = 0;
+				int hops = 0;
+				for (int city = j; city != i; hops++) {
+					assertTrue(hops < n, "Previous cities from " + i + " to " + j + " form a cycle");
+					int before = network.getPreviousCity(i, city);
+					int step = graph.getCheapestCost(before, city);
+					assertTrue(step != Integer.MAX_VALUE,
+							"No connection from " + before + " to " + city + " on route " + i + " -> " + j);
+					total += step;
+					city = before;
+				}
+				assertEquals(network.getCost(i, j), total, "Route " + i + " -> " + j + " has another cost");
+			}
+		}
+	}
+}
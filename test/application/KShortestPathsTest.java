@@ -0,0 +1,71 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class KShortestPathsTest {
+
+	// Yen's routes, taken until none are left, must be exactly the simple paths
+	// of a small network, each once and in order of increasing cost
+	@ParameterizedTest
+	@ValueSource(longs = { 1, 3, 4 })
+	void enumeratesEverySimplePathInCostOrder(long seed) {
+		CityGraph graph = CityGraph.fromCities(GraphGenerator.random(8, 3, 10, seed));
+		int target = graph.getCityCount() - 1;
+		Set<List<Integer>> expected = new HashSet<>(); // A set: parallel connections repeat routes
+		simplePaths(graph, 0, target, new ArrayList<>(List.of(0)), expected);
+
+		KShortestPaths routes = new KShortestPaths(graph, 0, target);
+		Set<List<Integer>> seen = new HashSet<>();
+		int lastCost = 0;
+		while (routes.hasNext()) {
+			TravelPath route = routes.next();
+			List<Integer> cities = Arrays.stream(route.getCities()).boxed().toList();
+			assertEquals(0, cities.get(0));
+			assertEquals(target, cities.get(cities.size() - 1));
+			assertEquals(cities.size(), new HashSet<>(cities).size(), "Route " + cities + " has a loop");
+			assertTrue(seen.add(cities), "Route " + cities + " returned twice");
+			assertEquals(routeCost(graph, cities), route.getCost(), "Route " + cities + " has another cost");
+			assertTrue(route.getCost() >= lastCost, "Route " + cities + " is cheaper than the one before it");
+			lastCost = route.getCost();
+		}
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, seen);
+		assertEquals(expected.size(), routes.getReturnedCount());
+	}
+
+	// Depth-first enumeration of every loopless route from the last city on
+	// 'path' to 'target'
+	private static void simplePaths(CityGraph graph, int city, int target, List<Integer> path,
+			Set<List<Integer>> out) {
+		if (city == target) {
+			out.add(new ArrayList<>(path));
+			return;
+		}
+		for (int e = graph.firstEdge(city); e < graph.endEdge(city); e++) {
+			int next = graph.getTarget(e);
+			if (path.contains(next))
+				continue;
+			path.add(next);
+			simplePaths(graph, next, target, path, out);
+			path.remove(path.size() - 1);
+		}
+	}
+
+	private static int routeCost(CityGraph graph, List<Integer> cities) {
+		int cost = 0;
+		for (int i = 1; i < cities.size(); i++)
+			cost += graph.getCheapestCost(cities.get(i - 1), cities.get(i));
+		return cost;
+	}
+}
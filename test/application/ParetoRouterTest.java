@@ -0,0 +1,103 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParetoRouterTest {
+
+	private static final int MAX_COST = 20;
+
+	// The front must hold one route per non-dominated (petrol, hotel) pair over
+	// every simple path, by increasing petrol cost, and a hotel budget must
+	// only cut off the routes above it
+	@ParameterizedTest
+	@ValueSource(longs = { 2, 4, 7 })
+	void frontMatchesBruteForce(long seed) {
+		CityGraph graph = tradeOffNetwork(seed);
+		int target = graph.getCityCount() - 1;
+		Map<List<Integer>, Set<List<Integer>>> costsByRoute = new HashMap<>();
+		simplePaths(graph, 0, target, new ArrayList<>(List.of(0)), 0, 0, costsByRoute);
+		List<List<Integer>> expected = nonDominated(costsByRoute);
+		assertTrue(expected.size() > 1, "Front has no trade-off to check");
+
+		ParetoRouter router = new ParetoRouter(graph);
+		List<TravelPath> front = router.solve(0, target);
+		assertEquals(expected, costs(front));
+		for (TravelPath route : front) {
+			List<Integer> cities = Arrays.stream(route.getCities()).boxed().toList();
+			Set<List<Integer>> costs = costsByRoute.get(cities);
+			assertTrue(costs != null && costs.contains(List.of(route.getPetrolCost(), route.getHotelCost())),
+					"Route " + cities + " cannot have costs " + route.getPetrolCost() + "/" + route.getHotelCost());
+		}
+
+		int budget = expected.get(expected.size() / 2).get(1);
+		List<List<Integer>> withinBudget = expected.stream().filter(costs -> costs.get(1) <= budget).toList();
+		assertEquals(withinBudget, costs(router.solve(0, target, budget)));
+	}
+
+	// Random network where a connection's hotel cost falls as its petrol cost
+	// rises, so fronts hold several routes
+	private static CityGraph tradeOffNetwork(long seed) {
+		City[] cities = GraphGenerator.random(12, 3, MAX_COST, seed);
+		for (int i = 0; i < cities.length; i++) {
+			Connection[] connections = cities[i].getConnections().clone();
+			for (int c = 0; c < connections.length; c++) {
+				int petrol = connections[c].getPetrolCost();
+				connections[c] = new Connection(connections[c].getDestination(), petrol, MAX_COST + 1 - petrol);
+			}
+			cities[i] = new City(cities[i].getCityName(), connections);
+		}
+		return CityGraph.fromCities(cities);
+	}
+
+	// Depth-first enumeration of every loopless route, through every choice of
+	// parallel connection, with the petrol and hotel costs it can have
+	private static void simplePaths(CityGraph graph, int city, int target, List<Integer> path, int petrol,
+			int hotel, Map<List<Integer>, Set<List<Integer>>> out) {
+		if (city == target) {
+			out.computeIfAbsent(new ArrayList<>(path), route -> new HashSet<>()).add(List.of(petrol, hotel));
+			return;
+		}
+		for (int e = graph.firstEdge(city); e < graph.endEdge(city); e++) {
+			int next = graph.getTarget(e);
+			if (path.contains(next))
+				continue;
+			path.add(next);
+			simplePaths(graph, next, target, path, petrol + graph.getPetrolCost(e), hotel + graph.getHotelCost(e),
+					out);
+			path.remove(path.size() - 1);
+		}
+	}
+
+	// Distinct (petrol, hotel) pairs no other pair is at least as good on both
+	// and better on one, by increasing petrol cost
+	private static List<List<Integer>> nonDominated(Map<List<Integer>, Set<List<Integer>>> costsByRoute) {
+		Set<List<Integer>> all = new HashSet<>();
+		costsByRoute.values().forEach(all::addAll);
+		List<List<Integer>> front = new ArrayList<>();
+		for (List<Integer> costs : all) {
+			boolean dominated = all.stream()
+					.anyMatch(other -> !other.equals(costs) && other.get(0) <= costs.get(0)
+							&& other.get(1) <= costs.get(1));
+			if (!dominated)
+				front.add(costs);
+		}
+		front.sort((a, b) -> Integer.compare(a.get(0), b.get(0)));
+		return front;
+	}
+
+	private static List<List<Integer>> costs(List<TravelPath> routes) {
+		return routes.stream().map(route -> List.of(route.getPetrolCost(), route.getHotelCost())).toList();
+	}
+}
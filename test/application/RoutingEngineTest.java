@@ -0,0 +1,42 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RoutingEngineTest {
+
+	// A -> B -> C, small enough for 2-byte cost cells
+	private static CityGraph chain() {
+		return CityGraph.fromCities(new City[] {
+				new City("A", new Connection[] { new Connection("B", 1, 1) }),
+				new City("B", new Connection[] { new Connection("C", 1, 1) }),
+				new City("C", new Connection[0]) });
+	}
+
+	@Test
+	void repairedUpdateCountsChangedCells() {
+		RoutingEngine engine = new RoutingEngine(DpMode.BLOCKED, 1, true);
+		try (SolvedNetwork network = engine.solve(chain(), "A", "C");
+				SolvedNetwork updated = engine.withConnectionCost(network, "A", "B", 5, 5)) {
+			assertFalse(updated.wereTablesRebuilt());
+			assertEquals(2, updated.getChangedCells()); // A -> B and A -> C
+			assertEquals(12, updated.getCost(0, 2));
+		}
+	}
+
+	// Costs beyond 2-byte cells make the engine solve the tables again, and
+	// the changed cells are still counted
+	@Test
+	void outgrownTablesAreRebuilt() {
+		RoutingEngine engine = new RoutingEngine(DpMode.BLOCKED, 1, true);
+		try (SolvedNetwork network = engine.solve(chain(), "A", "C");
+				SolvedNetwork updated = engine.withConnectionCost(network, "A", "B", 70000, 0)) {
+			assertTrue(updated.wereTablesRebuilt());
+			assertEquals(2, updated.getChangedCells());
+			assertEquals(70002, updated.getCost(0, 2));
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class SingleSourceDijkstraTest {
+
+	// S -> B -> X costs 3 and S -> A -> X costs 41, but X has no way to the
+	// landmark Z, so a goal-directed search towards T prunes it. The search
+	// settles B before A, reaching X first from B (pruned) and again from A.
+	private static CityGraph prunedCityGraph() {
+		return CityGraph.fromCities(new City[] {
+				new City("S", new Connection[] { new Connection("B", 1, 0), new Connection("A", 2, 0) }),
+				new City("A",
+						new Connection[] { new Connection("X", 39, 0), new Connection("T", 29, 0),
+								new Connection("Z", 1, 0) }),
+				new City("B", new Connection[] { new Connection("X", 2, 0), new Connection("Z", 1, 0) }),
+				new City("X", new Connection[0]),
+				new City("T", new Connection[] { new Connection("Z", 1, 0) }),
+				new City("Z", new Connection[0]) });
+	}
+
+	// Landmark Z: reached from no other city, reachable from all but X
+	private static Landmarks landmarkZ(CityGraph graph) {
+		int inf = Landmarks.INF;
+		int[] fromZ = { inf, inf, inf, inf, inf, 0 };
+		int[] toZ = { 2, 1, 1, inf, 1, 0 };
+		return new Landmarks(graph.getCityCount(), new int[] { graph.indexOf("Z") }, fromZ, toZ);
+	}
+
+	@Test
+	void prunedCityIsNotSettledWithAWorseCost() {
+		CityGraph graph = prunedCityGraph();
+		SingleSourceDijkstra search = new SingleSourceDijkstra(graph, landmarkZ(graph));
+		int s = graph.indexOf("S");
+		int x = graph.indexOf("X");
+
+		search.run(s, graph.indexOf("T"));
+		assertEquals(31, search.getCostTo(graph.indexOf("T")));
+		assertFalse(search.isSettled(x));
+	}
+
+	@Test
+	void repeatedQueriesFromOneSourceStayExact() {
+		CityGraph graph = prunedCityGraph();
+		SolvedNetwork network = new SolvedNetwork(graph, "S", "T", DpMode.ALT, null, null, landmarkZ(graph), null, 0);
+		int s = graph.indexOf("S");
+
+		assertEquals(31, network.getCost(s, graph.indexOf("T")));
+		assertEquals(3, network.getCost(s, graph.indexOf("X")));
+		assertEquals(graph.indexOf("B"), network.getPreviousCity(s, graph.indexOf("X")));
+	}
+}
@@ -0,0 +1,55 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class SolvedNetworkTest {
+
+	// Queries from several threads at once share the network's pooled searches;
+	// every answer must still match the tables
+	@ParameterizedTest
+	@EnumSource(value = DpMode.class, names = { "DIJKSTRA", "ALT", "CH" })
+	void concurrentSearchesMatchTables(DpMode mode) throws Exception {
+		CityGraph graph = CityGraph.fromCities(GraphGenerator.random(200, 3, 100, 7));
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try (SolvedNetwork tables = new RoutingEngine(DpMode.BLOCKED, 1, true).solve(graph, null, null);
+				SolvedNetwork searches = new RoutingEngine(mode, 1, true).solve(graph, null, null)) {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int first = t;
+				results.add(threads.submit(() -> {
+					int[] path = new int[graph.getCityCount()];
+					for (int from = first; from < graph.getCityCount(); from += 4) {
+						for (int to = 0; to < graph.getCityCount(); to += 7) {
+							assertEquals(tables.getCost(from, to), searches.getCost(from, to));
+							int hops = searches.getPath(from, to, path);
+							assertEquals(searches.getHopCount(from, to), hops);
+							if (hops > 0)
+								assertEquals(tables.getCost(from, to), routeCost(graph, path, hops));
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> result : results)
+				result.get();
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	private static int routeCost(CityGraph graph, int[] path, int hops) {
+		int cost = 0;
+		for (int i = 0; i < hops; i++)
+			cost += graph.getCheapestCost(path[i], path[i + 1]);
+		return cost;
+	}
+}